@@ -5,11 +5,19 @@ import com.fitness.gym.dto.LoginRequest;
 import com.fitness.gym.dto.RegisterRequest;
 import com.fitness.gym.dto.ProfileUpdateRequest;
 import com.fitness.gym.dto.ChangePasswordRequest;
+import com.fitness.gym.dto.RefreshTokenRequest;
+import com.fitness.gym.security.PasswordHashingRejectedException;
 import com.fitness.gym.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:5173")
@@ -18,55 +26,76 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    // Password hashing runs on its own pool, so these handlers release the request thread while it works
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest) {
-        return ResponseEntity.ok(authService.login(loginRequest));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody LoginRequest loginRequest) {
+        return authService.login(loginRequest).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest registerRequest) {
-        return ResponseEntity.ok(authService.register(registerRequest));
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@RequestBody RegisterRequest registerRequest) {
+        return authService.register(registerRequest).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Failed to refresh token: " + e.getMessage());
+        }
     }
 
     @PutMapping("/profile")
-    public ResponseEntity<?> updateProfile(@RequestBody ProfileUpdateRequest profileUpdateRequest, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> updateProfile(@RequestBody ProfileUpdateRequest profileUpdateRequest, Authentication authentication) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            return ResponseEntity.ok(authService.updateProfile(profileUpdateRequest, jwt));
+            return ResponseEntity.ok(authService.updateProfile(profileUpdateRequest, authentication.getName()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to update profile: " + e.getMessage());
         }
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getProfile(Authentication authentication) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            return ResponseEntity.ok(authService.getProfile(jwt));
+            return ResponseEntity.ok(authService.getProfile(authentication.getName()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to get profile: " + e.getMessage());
         }
     }
 
     @PostMapping("/change-password")
-    public ResponseEntity<?> changePassword(@RequestBody ChangePasswordRequest request, @RequestHeader("Authorization") String token) {
+    public CompletableFuture<ResponseEntity<?>> changePassword(@RequestBody ChangePasswordRequest request, Authentication authentication) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            authService.changePassword(request, jwt);
-            return ResponseEntity.ok("Password changed successfully");
+            // Tokens issued before the change are revoked, so hand back a fresh one
+            return authService.changePassword(request, authentication.getName())
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> failure("Failed to change password: ", e));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to change password: " + e.getMessage());
+            return CompletableFuture.completedFuture(failure("Failed to change password: ", e));
         }
     }
 
     @DeleteMapping("/delete-account")
-    public ResponseEntity<?> deleteAccount(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> deleteAccount(Authentication authentication) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            authService.deleteAccount(jwt);
+            authService.deleteAccount(authentication.getName());
             return ResponseEntity.ok("Account deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to delete account: " + e.getMessage());
         }
     }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<?> badCredentials() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    private static ResponseEntity<?> failure(String message, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof PasswordHashingRejectedException rejected) {
+            throw rejected;
+        }
+        return ResponseEntity.badRequest().body(message + cause.getMessage());
+    }
 }
@@ -0,0 +1,131 @@
+package com.fitness.gym.controller;
+
+import com.fitness.gym.service.MediaCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves uploaded media from {@link MediaCache}. Uploaded originals get a new key per upload, so they are
+ * cacheable for a year; image variants are rewritten under the same key and are revalidated with their
+ * ETag instead. Single byte ranges are handled here.
+ */
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    private static final List<String> PUBLIC_PREFIXES = List.of("uploads/", "profiles/", "supplements/", "variants/");
+    private static final List<String> IMMUTABLE_PREFIXES = List.of("uploads/", "profiles/", "supplements/");
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "public, no-cache";
+
+    private final MediaCache mediaCache;
+
+    public MediaController(MediaCache mediaCache) {
+        this.mediaCache = mediaCache;
+    }
+
+    @GetMapping("/{*key}")
+    public void serve(@PathVariable String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String objectKey = key.substring(1);
+        if (objectKey.contains("..") || PUBLIC_PREFIXES.stream().noneMatch(objectKey::startsWith)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        MediaCache.Entry entry;
+        try {
+            entry = mediaCache.get(objectKey);
+        } catch (NoSuchKeyException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                IMMUTABLE_PREFIXES.stream().anyMatch(objectKey::startsWith) ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(entry.etag()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = entry.size() - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(entry.etag()))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Multiple ranges would need a multipart body; answering with the whole file is allowed
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(entry.size());
+                    end = ranges.get(0).getRangeEnd(entry.size());
+                    if (start >= entry.size() || start > end) {
+                        throw new IllegalArgumentException("Range not satisfiable");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + entry.size());
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + entry.size());
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(entry.contentType());
+        response.setContentLengthLong(length);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        try {
+            send(entry, start, end, response);
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and open; fetch it again, and give up if the content changed meanwhile
+            mediaCache.invalidate(objectKey);
+            MediaCache.Entry refetched = mediaCache.get(objectKey);
+            if (!refetched.etag().equals(entry.etag())) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            send(refetched, start, end, response);
+        }
+    }
+
+    // Copied from a channel opened here rather than handed to Tomcat's sendfile, which opens the file after
+    // the handler returns; an eviction in between would break the response. Once open, the file stays readable
+    // even if the cache deletes it.
+    private static void send(MediaCache.Entry entry, long start, long end, HttpServletResponse response) throws IOException {
+        try (FileChannel file = FileChannel.open(entry.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = file.transferTo(position, end + 1 - position, out);
+                if (sent == 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+}
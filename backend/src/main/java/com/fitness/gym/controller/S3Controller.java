@@ -1,34 +1,125 @@
 package com.fitness.gym.controller;
 
+import com.fitness.gym.dto.PresignedUpload;
+import com.fitness.gym.dto.UploadCompletionRequest;
+import com.fitness.gym.dto.UploadTicketRequest;
+import com.fitness.gym.service.ImageVariantService;
+import com.fitness.gym.service.MediaUploadService;
+import com.fitness.gym.service.PresignedUploadService;
 import com.fitness.gym.service.S3Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/s3")
 public class S3Controller {
 
+    private static final Logger log = LoggerFactory.getLogger(S3Controller.class);
+
+    // Longest file name kept in an object key; S3 keys are capped at 1024 bytes
+    private static final int MAX_FILENAME_LENGTH = 100;
+
     private final S3Service s3Service;
+    private final ImageVariantService imageVariantService;
+    private final MediaUploadService mediaUploadService;
+    private final PresignedUploadService presignedUploadService;
 
-    public S3Controller(S3Service s3Service) {
+    public S3Controller(S3Service s3Service, ImageVariantService imageVariantService, MediaUploadService mediaUploadService,
+                        PresignedUploadService presignedUploadService) {
         this.s3Service = s3Service;
+        this.imageVariantService = imageVariantService;
+        this.mediaUploadService = mediaUploadService;
+        this.presignedUploadService = presignedUploadService;
     }
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
+        // Random prefix so two users uploading "photo.jpg" don't overwrite each other
+        String key = "uploads/" + UUID.randomUUID() + "/" + safeFilename(file.getOriginalFilename());
         try {
-            String key = "uploads/" + file.getOriginalFilename();
-
             s3Service.uploadFile(key, file);
+            // Variants land under variants/<key>/ for callers that know the key
+            imageVariantService.generate(key, urls -> { });
 
             return ResponseEntity.ok("File uploaded to S3: " + key);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Upload failed: " + e.getMessage());
+        } catch (IOException e) {
+            log.error("Upload to {} failed", key, e);
+            return ResponseEntity.internalServerError().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/profile-picture")
+    public ResponseEntity<String> uploadProfilePicture(@RequestParam("file") MultipartFile file, Authentication authentication) {
+        try {
+            String url = mediaUploadService.uploadProfilePicture(authentication.getName(), file);
+            return ResponseEntity.ok("File uploaded to S3: " + url);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Upload failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/supplements/{id}/image")
+    public ResponseEntity<String> uploadSupplementImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        try {
+            String url = mediaUploadService.uploadSupplementImage(id, file);
+            return ResponseEntity.ok("File uploaded to S3: " + url);
         } catch (IOException e) {
-            e.printStackTrace();
             return ResponseEntity.internalServerError().body("Upload failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/presign/put")
+    public ResponseEntity<?> presignPut(@RequestBody UploadTicketRequest request, Authentication authentication) {
+        try {
+            PresignedUpload upload = presignedUploadService.presignPut(authentication.getName(), request);
+            return ResponseEntity.ok(upload);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/presign/post")
+    public ResponseEntity<?> presignPost(@RequestBody UploadTicketRequest request, Authentication authentication) {
+        try {
+            PresignedUpload upload = presignedUploadService.presignPost(authentication.getName(), request);
+            return ResponseEntity.ok(upload);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<String> completeUpload(@RequestBody UploadCompletionRequest request, Authentication authentication) {
+        try {
+            String url = presignedUploadService.complete(authentication.getName(), request);
+            return ResponseEntity.ok(url);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    // Keeps only the last path segment and replaces anything outside [A-Za-z0-9._-], so a client-supplied name
+    // can't add prefixes, "..", control characters or URL-unsafe bytes to the key
+    static String safeFilename(String originalFilename) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(originalFilename == null ? "" : originalFilename));
+        name = name == null ? "" : name.replaceAll("[^A-Za-z0-9._-]", "_").replaceAll("^[._]+", "");
+        if (name.length() > MAX_FILENAME_LENGTH) {
+            name = name.substring(name.length() - MAX_FILENAME_LENGTH);
         }
+        return name.isEmpty() ? "file" : name;
     }
-}
\ No newline at end of file
+}
@@ -4,36 +4,49 @@ import com.fitness.gym.dto.CartRequest;
 import com.fitness.gym.dto.ProductRequest;
 import com.fitness.gym.dto.StripeResponse;
 import com.fitness.gym.service.StripeService;
+import com.fitness.gym.service.StripeWebhookService;
+import com.stripe.exception.SignatureVerificationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/product/v1")
 public class StripeController {
 
     private final StripeService stripeService;
+    private final StripeWebhookService stripeWebhookService;
 
-    public StripeController(StripeService stripeService){
+    public StripeController(StripeService stripeService, StripeWebhookService stripeWebhookService){
         this.stripeService = stripeService;
+        this.stripeWebhookService = stripeWebhookService;
     }
 
+    // Stripe calls run on their own pool, so these handlers release the request thread while Stripe responds
     @PostMapping("checkout")
-    public ResponseEntity<StripeResponse> checkoutProducts(@RequestBody ProductRequest productRequest){
-        StripeResponse stripeResponse = stripeService.checkoutProducts(productRequest);
-
-        if ("Failed".equalsIgnoreCase(stripeResponse.getStatus())) {
-            // Return 500 for failure
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(stripeResponse);
-        }
-        return ResponseEntity
-                .status(HttpStatus.OK)
-                .body(stripeResponse);
+    public CompletableFuture<ResponseEntity<StripeResponse>> checkoutProducts(@RequestBody ProductRequest productRequest,
+                                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        return stripeService.checkoutProducts(productRequest, idempotencyKey).thenApply(StripeController::toResponse);
     }
     @PostMapping("checkoutCart")
-    public ResponseEntity<StripeResponse> checkoutCart(@RequestBody CartRequest cartRequest){
-        StripeResponse stripeResponse = stripeService.checkoutCart(cartRequest);
-
+    public CompletableFuture<ResponseEntity<StripeResponse>> checkoutCart(@RequestBody CartRequest cartRequest,
+                                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        return stripeService.checkoutCart(cartRequest, idempotencyKey).thenApply(StripeController::toResponse);
+    }
+    // Stores the event for the background workers; Stripe only needs to see a 2xx
+    @PostMapping("webhook")
+    public ResponseEntity<Void> webhook(@RequestBody String payload,
+                                        @RequestHeader(value = "Stripe-Signature", required = false) String signature) {
+        try {
+            stripeWebhookService.receive(payload, signature);
+            return ResponseEntity.ok().build();
+        } catch (SignatureVerificationException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    private static ResponseEntity<StripeResponse> toResponse(StripeResponse stripeResponse) {
         if ("Failed".equalsIgnoreCase(stripeResponse.getStatus())) {
             // Return 500 for failure
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(stripeResponse);
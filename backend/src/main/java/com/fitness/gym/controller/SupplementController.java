@@ -1,11 +1,26 @@
 package com.fitness.gym.controller;
 
+import com.fitness.gym.dto.StockAdjustment;
+import com.fitness.gym.dto.SupplementDetail;
+import com.fitness.gym.dto.SupplementSummary;
 import com.fitness.gym.model.Supplement;
+import com.fitness.gym.service.SupplementBulkService;
+import com.fitness.gym.service.SupplementCatalog;
+import com.fitness.gym.service.SupplementRecommendations;
 import com.fitness.gym.service.SupplementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -16,19 +31,87 @@ public class SupplementController {
     @Autowired
     private SupplementService supplementService;
 
+    @Autowired
+    private SupplementCatalog supplementCatalog;
+
+    @Autowired
+    private SupplementBulkService supplementBulkService;
+
+    @Autowired
+    private SupplementRecommendations supplementRecommendations;
+
     @GetMapping
-    public ResponseEntity<List<Supplement>> getAllSupplements() {
-        return ResponseEntity.ok(supplementService.getAllSupplements());
+    public ResponseEntity<byte[]> getAllSupplements(WebRequest request) {
+        SupplementCatalog.Snapshot catalog = supplementCatalog.current();
+        if (request.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.json());
+    }
+
+    // Selected over the full catalog whenever ids is present, e.g. /api/supplements?ids=3,7,12
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getSupplementsByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(supplementService.getSupplementDetails(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid ids: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getSupplementPage(@RequestParam(required = false) String category,
+                                               @RequestParam(defaultValue = "id") String sort,
+                                               @RequestParam(defaultValue = "asc") String direction,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(supplementService.getSupplementPage(category, sort, direction, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid page request: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchSupplements(@RequestParam("q") String query,
+                                               @RequestParam(required = false) String category,
+                                               @RequestParam(required = false) String brand,
+                                               @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(supplementService.search(query, category, brand, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid search request: " + e.getMessage());
+        }
+    }
+
+    // Signed-in members get picks from their profile and purchases; the optional fields override the profile
+    @GetMapping("/recommendations")
+    public ResponseEntity<?> getRecommendations(@RequestParam(required = false) String goal,
+                                                @RequestParam(required = false) Double weight,
+                                                @RequestParam(required = false) Double height,
+                                                @RequestParam(required = false) Integer age,
+                                                @RequestParam(defaultValue = "5") int limit,
+                                                Authentication authentication) {
+        String email = authentication != null ? authentication.getName() : null;
+        try {
+            return ResponseEntity.ok(supplementRecommendations.recommend(email, goal, weight, height, age, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid recommendation request: " + e.getMessage());
+        }
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Supplement>> getSupplementsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<SupplementSummary>> getSupplementsByCategory(@PathVariable String category) {
         return ResponseEntity.ok(supplementService.getSupplementsByCategory(category));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Supplement> getSupplementById(@PathVariable Long id) {
-        return ResponseEntity.ok(supplementService.getSupplementById(id));
+    public ResponseEntity<SupplementDetail> getSupplementById(@PathVariable Long id) {
+        return ResponseEntity.ok(supplementService.getSupplementDetail(id));
     }
 
     @PostMapping
@@ -36,11 +119,58 @@ public class SupplementController {
         return ResponseEntity.ok(supplementService.createSupplement(supplement));
     }
 
+    // Bulk feeds are read from the request stream one row at a time and upserted in JDBC batches
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<?> importNdjson(HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(supplementBulkService.importNdjson(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(supplementBulkService.importCsv(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"supplements.csv\"")
+                    .body(supplementBulkService::exportCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(supplementBulkService::exportNdjson);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Supplement> updateSupplement(@PathVariable Long id, @RequestBody Supplement supplement) {
         return ResponseEntity.ok(supplementService.updateSupplement(id, supplement));
     }
 
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<?> adjustStock(@PathVariable Long id, @RequestBody StockAdjustment adjustment) {
+        if (adjustment.getDelta() == null) {
+            return ResponseEntity.badRequest().body("delta is required");
+        }
+        try {
+            return ResponseEntity.ok(supplementService.adjustStock(id, adjustment.getDelta()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Stock not adjusted: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteSupplement(@PathVariable Long id) {
         supplementService.deleteSupplement(id);
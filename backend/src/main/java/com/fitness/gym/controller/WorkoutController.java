@@ -0,0 +1,59 @@
+package com.fitness.gym.controller;
+
+import com.fitness.gym.dto.WorkoutLog;
+import com.fitness.gym.dto.WorkoutPreferences;
+import com.fitness.gym.service.WorkoutLogService;
+import com.fitness.gym.service.WorkoutPlanService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/workouts")
+public class WorkoutController {
+
+    private final WorkoutPlanService workoutPlanService;
+    private final WorkoutLogService workoutLogService;
+
+    public WorkoutController(WorkoutPlanService workoutPlanService, WorkoutLogService workoutLogService) {
+        this.workoutPlanService = workoutPlanService;
+        this.workoutLogService = workoutLogService;
+    }
+
+    // Generation runs on its own pool; cached plans complete immediately
+    @PostMapping("/generate")
+    public CompletableFuture<ResponseEntity<?>> generate(@RequestBody WorkoutPreferences preferences) {
+        try {
+            return workoutPlanService.generate(preferences).thenApply(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+    }
+
+    // Completes once the sessions are committed, together with whatever other uploads were queued
+    @PostMapping("/log")
+    public CompletableFuture<ResponseEntity<?>> logSessions(@RequestBody WorkoutLog workoutLog, Authentication authentication) {
+        try {
+            return workoutLogService.log(authentication.getName(), workoutLog).thenApply(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/progress")
+    public ResponseEntity<?> getProgress(@RequestParam(defaultValue = "*") String exercise,
+                                         @RequestParam(defaultValue = "week") String period,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         Authentication authentication) {
+        try {
+            return ResponseEntity.ok(workoutLogService.progress(authentication.getName(), exercise, period, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid progress request: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.fitness.gym.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkImportResult {
+    private int processed;
+    private int imported;
+    private int failed;
+    // Capped so a badly formatted feed cannot grow the response without bound
+    private List<RowError> errors = new ArrayList<>();
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.fitness.gym.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Where and how the client sends the file: a PUT to {@code url} with {@code headers}, or a multipart form POST
+ * to {@code url} with {@code fields} followed by the file.
+ */
+public record PresignedUpload(String key,
+                              String method,
+                              String url,
+                              Map<String, String> headers,
+                              Map<String, String> fields,
+                              Instant expiresAt) {
+}
@@ -6,12 +6,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 
 public class ProductRequest {
+    @JsonProperty("supplement_id")
+    private Long supplementId;
+    // Optional; checked against the server-side price when sent
     @JsonProperty("price_id")
     private String priceId;
+    private BigDecimal price;
     private Long quantity;
 }
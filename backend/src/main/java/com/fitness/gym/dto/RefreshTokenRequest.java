@@ -0,0 +1,8 @@
+package com.fitness.gym.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
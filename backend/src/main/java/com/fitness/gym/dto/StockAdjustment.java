@@ -0,0 +1,9 @@
+package com.fitness.gym.dto;
+
+import lombok.Data;
+
+// Units added to (positive) or removed from (negative) a supplement's available stock
+@Data
+public class StockAdjustment {
+    private Integer delta;
+}
@@ -14,4 +14,5 @@ public class StripeResponse {
     private String message;
     private String sessionId;
     private String sessionUrl;
+    private Long orderId;
 }
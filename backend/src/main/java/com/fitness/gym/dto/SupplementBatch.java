@@ -0,0 +1,11 @@
+package com.fitness.gym.dto;
+
+import java.util.List;
+
+/**
+ * Result of GET /api/supplements?ids=...: the available supplements found, in the order they were asked for,
+ * and the ids that matched nothing or a deleted supplement, so a client can drop stale cart lines instead of
+ * failing the whole page.
+ */
+public record SupplementBatch(List<SupplementDetail> supplements, List<Long> notFound) {
+}
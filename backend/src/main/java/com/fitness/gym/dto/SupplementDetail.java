@@ -0,0 +1,21 @@
+package com.fitness.gym.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+public record SupplementDetail(Long id,
+                               String name,
+                               String description,
+                               BigDecimal price,
+                               String imageUrl,
+                               String imageThumbUrl,
+                               String imageCardUrl,
+                               String category,
+                               String brand,
+                               Integer stockQuantity,
+                               String usageInstructions,
+                               String benefits,
+                               @JsonProperty("price_id") String priceId,
+                               Boolean isAvailable) {
+}
@@ -0,0 +1,14 @@
+package com.fitness.gym.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SupplementPage<T> {
+    private List<T> items;
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,12 @@
+package com.fitness.gym.dto;
+
+import java.math.BigDecimal;
+
+// Columns checkout needs to price a cart line
+public interface SupplementPrice {
+    Long getId();
+    String getName();
+    String getPriceId();
+    BigDecimal getPrice();
+    Boolean getIsAvailable();
+}
@@ -0,0 +1,9 @@
+package com.fitness.gym.dto;
+
+/**
+ * One entry of GET /api/supplements/recommendations. The reason is "bought-together" when the pick comes
+ * mostly from the member's purchase history, with the purchased supplement it relates to, and "profile" when
+ * it comes from what members with a similar goal and build buy.
+ */
+public record SupplementRecommendation(SupplementSummary supplement, String reason, Long relatedSupplementId) {
+}
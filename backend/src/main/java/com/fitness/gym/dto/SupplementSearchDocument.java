@@ -0,0 +1,14 @@
+package com.fitness.gym.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * What the search index keeps per supplement: the summary card it returns, plus the long text fields it
+ * tokenizes, which stay out of responses.
+ */
+public interface SupplementSearchDocument extends SupplementSummary {
+    @JsonIgnore
+    String getDescription();
+    @JsonIgnore
+    String getBenefits();
+}
@@ -0,0 +1,16 @@
+package com.fitness.gym.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class SupplementSearchResult {
+    private List<SupplementSummary> items;
+    private int total;
+    private Map<String, Long> categoryFacets;
+    private Map<String, Long> brandFacets;
+}
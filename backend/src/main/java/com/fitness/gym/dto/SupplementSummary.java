@@ -0,0 +1,24 @@
+package com.fitness.gym.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalog listing shape: everything a product card needs, without the long text columns. An interface
+ * projection rather than a record because keyset scrolling reads the sort keys back from each row.
+ */
+public interface SupplementSummary {
+    Long getId();
+    String getName();
+    BigDecimal getPrice();
+    String getImageUrl();
+    String getImageThumbUrl();
+    String getImageCardUrl();
+    String getCategory();
+    String getBrand();
+    Integer getStockQuantity();
+    @JsonProperty("price_id")
+    String getPriceId();
+    Boolean getIsAvailable();
+}
@@ -0,0 +1,15 @@
+package com.fitness.gym.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadCompletionRequest {
+    private String key;
+    private Target target;
+    private Long supplementId;
+
+    public enum Target {
+        PROFILE_PICTURE,
+        SUPPLEMENT_IMAGE
+    }
+}
@@ -0,0 +1,11 @@
+package com.fitness.gym.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadTicketRequest {
+    private String contentType;
+    private Long size;
+    // Hex SHA-256 of the file; it becomes the object key and S3 rejects a body that doesn't match
+    private String sha256;
+}
@@ -0,0 +1,24 @@
+package com.fitness.gym.dto;
+
+import com.fitness.gym.model.User;
+
+/**
+ * Profile shape returned by the auth endpoints; never carries the password hash, roles or purchases.
+ */
+public record UserProfile(Long id,
+                          String email,
+                          String firstName,
+                          String lastName,
+                          String profilePicture,
+                          String profilePictureThumbUrl,
+                          String profilePictureCardUrl,
+                          Double weight,
+                          Double height,
+                          String fitnessGoal,
+                          Integer age) {
+
+    public static UserProfile from(User user) {
+        return new UserProfile(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getProfilePicture(), user.getProfilePictureThumbUrl(), user.getProfilePictureCardUrl(), user.getWeight(), user.getHeight(), user.getFitnessGoal(), user.getAge());
+    }
+}
@@ -0,0 +1,22 @@
+package com.fitness.gym.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Body of POST /api/workouts/log: finished sessions, each with a client-generated UUID so a retried upload
+ * is not counted twice. The time zone (IANA, UTC by default) decides which day a session counts towards.
+ */
+public record WorkoutLog(String timeZone, List<LoggedSession> sessions) {
+
+    public record LoggedSession(String id, String name, Instant startedAt, Instant endedAt, String notes,
+                                List<LoggedExercise> exercises) {
+    }
+
+    public record LoggedExercise(String name, List<LoggedSet> sets) {
+    }
+
+    public record LoggedSet(int reps, BigDecimal loadKg) {
+    }
+}
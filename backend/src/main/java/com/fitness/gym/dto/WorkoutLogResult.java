@@ -0,0 +1,10 @@
+package com.fitness.gym.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a log upload: sessions stored, sessions skipped because they were already logged, and the
+ * exercises where a stored session set a new best estimated one-rep max.
+ */
+public record WorkoutLogResult(int accepted, int duplicates, List<String> personalRecords) {
+}
@@ -0,0 +1,15 @@
+package com.fitness.gym.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class WorkoutPreferences {
+    private String goal;
+    private String experienceLevel;
+    private String duration;
+    private List<String> equipment;
+    private List<String> focusAreas;
+    private Integer frequency;
+}
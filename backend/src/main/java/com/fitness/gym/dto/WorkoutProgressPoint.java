@@ -0,0 +1,17 @@
+package com.fitness.gym.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One day or week of a progress chart, read from the pre-aggregated rollups.
+ */
+public record WorkoutProgressPoint(LocalDate periodStart,
+                                   int sessions,
+                                   int sets,
+                                   int reps,
+                                   BigDecimal volume,
+                                   BigDecimal maxLoad,
+                                   BigDecimal bestE1rm,
+                                   int prs) {
+}
@@ -0,0 +1,22 @@
+package com.fitness.gym.dto;
+
+import java.util.List;
+
+/**
+ * A generated one-week plan, in the shape the workout pages render.
+ */
+public record WorkoutRoutine(WorkoutPlan workoutPlan) {
+
+    public record WorkoutPlan(String name,
+                              String description,
+                              String duration,
+                              List<WorkoutDay> days,
+                              List<String> tips) {
+    }
+
+    public record WorkoutDay(int day, List<WorkoutExercise> exercises) {
+    }
+
+    public record WorkoutExercise(String name, Integer sets, String reps, String notes) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A workout plan generated for one canonical set of preferences. The key is a hash of the provider and
+ * those preferences, so users asking for the same plan share one row and one generation.
+ */
+@Data
+@Entity
+@Table(name = "generated_workout_plans", indexes = {
+        @Index(name = "idx_generated_workout_plans_last_used_at", columnList = "last_used_at")
+})
+public class GeneratedWorkoutPlan {
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 50)
+    private String provider;
+
+    @Column(nullable = false, length = 2000)
+    private String preferences;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String plan;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private Instant lastUsedAt;
+}
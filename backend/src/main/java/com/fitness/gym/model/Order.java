@@ -0,0 +1,52 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Entity
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_stripe_session_id", columnList = "stripe_session_id", unique = true),
+        @Index(name = "idx_orders_status_reserved_until", columnList = "status, reserved_until")
+})
+public class Order {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null for guest checkouts
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status = OrderStatus.PENDING;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "stripe_session_id")
+    private String stripeSessionId;
+
+    // Reserved stock is returned to the shelf once this passes without a payment
+    @Column(name = "reserved_until", nullable = false)
+    private Instant reservedUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    private List<Purchase> items = new ArrayList<>();
+}
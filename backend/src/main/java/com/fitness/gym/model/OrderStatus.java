@@ -0,0 +1,11 @@
+package com.fitness.gym.model;
+
+public enum OrderStatus {
+    // Stock is reserved and the Stripe session is open
+    PENDING,
+    PAID,
+    // Reservation ran out before payment; stock has been returned
+    EXPIRED,
+    // Checkout failed or was abandoned; stock has been returned
+    CANCELLED
+}
@@ -2,6 +2,8 @@ package com.fitness.gym.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.List;
 import java.util.UUID;
@@ -22,6 +24,8 @@ public class Product {
     private int quantity;
     @Column(name = "Price", nullable = false)
     private double price;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "product")
     private List<Purchase> purchases;
 
@@ -2,29 +2,50 @@ package com.fitness.gym.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Data
-@Table(name = "Purchase")
+@Table(name = "Purchase", indexes = @Index(name = "idx_purchase_purchase_date", columnList = "Purchase_Date"))
 public class Purchase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "User_Id" , foreignKey = @ForeignKey(name = "fk_purchase_user"))
     private User user;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "Product_Id" , foreignKey = @ForeignKey(name = "fk_purchase_product"))
     private Product product;
 
     @Column(name = "Quantity_Purchase")
     private int quantityPurchased;
 
+    // Order line written at checkout: the order it belongs to and the supplement/price it was reserved at
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Order_Id", foreignKey = @ForeignKey(name = "fk_purchase_order"))
+    private Order order;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Supplement_Id", foreignKey = @ForeignKey(name = "fk_purchase_supplement"))
+    private Supplement supplement;
 
+    @Column(name = "Unit_Price")
+    private BigDecimal unitPrice;
 
-
-
+    // Set when the order's payment is confirmed by Stripe
+    @Column(name = "Purchase_Date")
+    private Instant purchaseDate;
 }
@@ -0,0 +1,54 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Inbox row for a verified Stripe webhook. The event id is the primary key, so a redelivered event is
+ * stored only once.
+ */
+@Data
+@Entity
+@Table(name = "stripe_webhook_events", indexes = {
+        @Index(name = "idx_stripe_webhook_events_due", columnList = "status, next_attempt_at")
+})
+public class StripeWebhookEvent {
+    @Id
+    @Column(length = 255)
+    private String id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum Status {
+        PENDING,
+        PROCESSED,
+        // Gave up after the configured number of attempts
+        FAILED
+    }
+}
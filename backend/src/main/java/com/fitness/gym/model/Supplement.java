@@ -1,12 +1,17 @@
 package com.fitness.gym.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Data
 @Entity
-@Table(name = "supplements")
+@Table(name = "supplements", indexes = {
+        @Index(name = "idx_supplements_category", columnList = "category, is_available"),
+        @Index(name = "idx_supplements_available_price", columnList = "is_available, price, id"),
+        @Index(name = "idx_supplements_available_name", columnList = "is_available, name, id")
+})
 public class Supplement {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,12 +29,20 @@ public class Supplement {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Resized copies of imageUrl for list pages; null until the variants have been generated
+    @Column(name = "image_thumb_url")
+    private String imageThumbUrl;
+
+    @Column(name = "image_card_url")
+    private String imageCardUrl;
+
     @Column(nullable = false)
     private String category;
 
     private String brand;
 
-    @Column(name = "stock_quantity")
+    // Checkout reservations change this with conditional updates, so entity saves must not write it back
+    @Column(name = "stock_quantity", updatable = false)
     private Integer stockQuantity;
 
     @Column(name = "usage_instructions")
@@ -37,8 +50,10 @@ public class Supplement {
 
     private String benefits;
 
-    @Column
-    private String price_id;
+    // Stripe price; kept as "price_id" on the wire for the frontend
+    @JsonProperty("price_id")
+    @Column(name = "price_id")
+    private String priceId;
 
     @Column(name = "is_available", nullable = false)
     private Boolean isAvailable = true;
@@ -1,14 +1,20 @@
 package com.fitness.gym.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_updated_at", columnList = "updated_at"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,17 +33,45 @@ public class User {
     private String lastName;
 
     private String profilePicture;
+
+    // Resized copies of profilePicture; null until the variants have been generated
+    @Column(name = "profile_picture_thumb_url")
+    private String profilePictureThumbUrl;
+
+    @Column(name = "profile_picture_card_url")
+    private String profilePictureCardUrl;
     
     private Double weight;
     private Double height;
     private String fitnessGoal;
     private Integer age;
     
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Loaded on demand; the sign-in paths that need it fetch it with UserRepository's *WithRoles finders
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ElementCollection
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<String> roles = new HashSet<>();
+
+    // Bumped whenever outstanding access tokens must stop working (password change, account deletion)
+    @JsonIgnore
+    @Column(name = "token_version")
+    private Integer tokenVersion = 0;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
     
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "user")
     private List<Purchase> purchases;
+
+    public int getTokenVersion() {
+        // Rows created before the column existed have no version yet
+        return tokenVersion != null ? tokenVersion : 0;
+    }
 }
@@ -0,0 +1,37 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A user's best estimated one-rep max per exercise, which new sessions are compared against for PRs.
+ */
+@Data
+@Entity
+@Table(name = "workout_exercise_bests")
+@IdClass(WorkoutExerciseBest.Key.class)
+public class WorkoutExerciseBest {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(length = 100)
+    private String exercise;
+
+    @Column(name = "best_e1rm", nullable = false, precision = 8, scale = 2)
+    private BigDecimal bestE1rm;
+
+    @Column(name = "achieved_on", nullable = false)
+    private LocalDate achievedOn;
+
+    @Data
+    public static class Key implements Serializable {
+        private Long userId;
+        private String exercise;
+    }
+}
@@ -0,0 +1,71 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated training totals for one user, exercise and day or week, added to as sessions are logged so
+ * progress charts read one row per period. The exercise "*" holds the totals across all exercises.
+ */
+@Data
+@Entity
+@Table(name = "workout_rollups")
+@IdClass(WorkoutRollup.Key.class)
+public class WorkoutRollup {
+    public static final String ALL_EXERCISES = "*";
+    public static final String DAY = "D";
+    // ISO weeks, starting on Monday
+    public static final String WEEK = "W";
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(length = 100)
+    private String exercise;
+
+    @Id
+    @Column(length = 1)
+    private String period;
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private int sessions;
+
+    @Column(nullable = false)
+    private int sets;
+
+    @Column(nullable = false)
+    private int reps;
+
+    // Sum of reps x load
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal volume;
+
+    @Column(name = "max_load", nullable = false, precision = 8, scale = 2)
+    private BigDecimal maxLoad;
+
+    // Best estimated one-rep max (Epley) of any set of 1-12 reps
+    @Column(name = "best_e1rm", nullable = false, precision = 8, scale = 2)
+    private BigDecimal bestE1rm;
+
+    // Sessions that beat the exercise's previous best estimated one-rep max
+    @Column(nullable = false)
+    private int prs;
+
+    @Data
+    public static class Key implements Serializable {
+        private Long userId;
+        private String exercise;
+        private String period;
+        private LocalDate periodStart;
+    }
+}
@@ -0,0 +1,43 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One logged workout. The id is the UUID the client generated for the session, so uploading the same
+ * session again is recognised and skipped. Rows are written in JDBC batches by WorkoutLogService.
+ */
+@Data
+@Entity
+@Table(name = "workout_sessions", indexes = {
+        @Index(name = "idx_workout_sessions_user_started", columnList = "user_id, started_at")
+})
+public class WorkoutSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private String name;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "ended_at")
+    private Instant endedAt;
+
+    // The day in the user's own time zone, which rollups are bucketed by
+    @Column(name = "performed_on", nullable = false)
+    private LocalDate performedOn;
+
+    @Column(length = 1000)
+    private String notes;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
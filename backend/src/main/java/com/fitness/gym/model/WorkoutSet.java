@@ -0,0 +1,45 @@
+package com.fitness.gym.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * A set within a logged session, keyed by its position so a session's sets are stored together.
+ */
+@Data
+@Entity
+@Table(name = "workout_sets")
+@IdClass(WorkoutSet.Key.class)
+public class WorkoutSet {
+    @Id
+    @Column(name = "session_id", length = 36)
+    private String sessionId;
+
+    @Id
+    @Column(name = "exercise_index")
+    private int exerciseIndex;
+
+    @Id
+    @Column(name = "set_index")
+    private int setIndex;
+
+    // Trimmed and lower-cased, so "Bench Press" and "bench press" roll up together
+    @Column(nullable = false, length = 100)
+    private String exercise;
+
+    @Column(nullable = false)
+    private int reps;
+
+    @Column(name = "load_kg", nullable = false, precision = 8, scale = 2)
+    private BigDecimal loadKg;
+
+    @Data
+    public static class Key implements Serializable {
+        private String sessionId;
+        private int exerciseIndex;
+        private int setIndex;
+    }
+}
@@ -0,0 +1,37 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.GeneratedWorkoutPlan;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface GeneratedWorkoutPlanRepository extends JpaRepository<GeneratedWorkoutPlan, String> {
+
+    // Another instance may have stored the same plan meanwhile; the first one wins
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into generated_workout_plans (cache_key, provider, preferences, plan, created_at, last_used_at) "
+            + "values (:key, :provider, :preferences, :plan, :now, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("provider") String provider, @Param("preferences") String preferences,
+                       @Param("plan") String plan, @Param("now") Instant now);
+
+    // Only rows not touched since staleBefore are written, so a popular plan costs one update per interval
+    @Transactional
+    @Modifying
+    @Query("update GeneratedWorkoutPlan p set p.lastUsedAt = :now where p.cacheKey = :key and p.lastUsedAt < :staleBefore")
+    int touch(@Param("key") String key, @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    @Query("select p.lastUsedAt from GeneratedWorkoutPlan p order by p.lastUsedAt desc")
+    List<Instant> findLastUsedAtDesc(Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from GeneratedWorkoutPlan p where p.lastUsedAt <= :cutoff")
+    int deleteUsedAtOrBefore(@Param("cutoff") Instant cutoff);
+}
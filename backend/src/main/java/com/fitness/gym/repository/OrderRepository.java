@@ -0,0 +1,29 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.Order;
+import com.fitness.gym.model.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    Optional<Order> findByStripeSessionId(String stripeSessionId);
+
+    @Query("select o.id from Order o where o.status = :status and o.reservedUntil < :now order by o.reservedUntil")
+    List<Long> findIdsByStatusAndReservedUntilBefore(@Param("status") OrderStatus status, @Param("now") Instant now, Limit limit);
+
+    // Conditional so a payment and the expiry reaper cannot both move the same order
+    @Modifying
+    @Query("update Order o set o.status = :to where o.id = :id and o.status = :from")
+    int transition(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    @Modifying
+    @Query("update Order o set o.stripeSessionId = :sessionId where o.id = :id")
+    int attachSession(@Param("id") Long id, @Param("sessionId") String sessionId);
+}
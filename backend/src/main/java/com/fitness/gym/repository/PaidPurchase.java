@@ -0,0 +1,10 @@
+package com.fitness.gym.repository;
+
+import java.time.Instant;
+
+public interface PaidPurchase {
+    Long getId();
+    Long getUserId();
+    Long getSupplementId();
+    Instant getPurchaseDate();
+}
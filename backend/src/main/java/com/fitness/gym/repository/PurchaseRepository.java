@@ -0,0 +1,27 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.Purchase;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+    List<Purchase> findByOrderId(Long orderId);
+
+    @Modifying
+    @Query("update Purchase p set p.purchaseDate = :paidAt where p.order.id = :orderId")
+    int markPurchased(@Param("orderId") Long orderId, @Param("paidAt") Instant paidAt);
+
+    // Keyset-paged by (purchase date, id) so rows sharing a timestamp are neither skipped nor read twice
+    @Query("select p.id as id, p.user.id as userId, p.supplement.id as supplementId, p.purchaseDate as purchaseDate "
+            + "from Purchase p where p.user is not null and p.supplement is not null and p.purchaseDate <= :until "
+            + "and (p.purchaseDate > :after or (p.purchaseDate = :after and p.id > :afterId)) "
+            + "order by p.purchaseDate, p.id")
+    List<PaidPurchase> findPaidAfter(@Param("after") Instant after, @Param("afterId") long afterId,
+                                     @Param("until") Instant until, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.fitness.gym.repository;
+
+import java.time.Instant;
+
+public interface RecommendationProfile {
+    Long getId();
+    String getEmail();
+    String getFitnessGoal();
+    Double getWeight();
+    Double getHeight();
+    Integer getAge();
+    Instant getUpdatedAt();
+}
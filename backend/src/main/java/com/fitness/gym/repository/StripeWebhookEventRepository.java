@@ -0,0 +1,34 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.StripeWebhookEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, String> {
+
+    // Stripe redelivers events; the duplicate is dropped by the primary key
+    @Modifying
+    @Query(value = "insert ignore into stripe_webhook_events (id, type, payload, status, attempts, next_attempt_at, received_at) "
+            + "values (:id, :type, :payload, 'PENDING', 0, :now, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("type") String type, @Param("payload") String payload, @Param("now") Instant now);
+
+    @Query("select e.id from StripeWebhookEvent e where e.status = :status and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<String> findIdsByStatusAndNextAttemptAtBefore(@Param("status") StripeWebhookEvent.Status status, @Param("now") Instant now, Limit limit);
+
+    // Pushes the next attempt out by a lease so another instance polling at the same time skips the event
+    @Modifying
+    @Query("update StripeWebhookEvent e set e.nextAttemptAt = :leaseUntil where e.id = :id "
+            + "and e.status = :status and e.nextAttemptAt <= :now")
+    int claim(@Param("id") String id, @Param("status") StripeWebhookEvent.Status status,
+              @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("delete from StripeWebhookEvent e where e.status = :status and e.processedAt < :before")
+    int deleteByStatusAndProcessedAtBefore(@Param("status") StripeWebhookEvent.Status status, @Param("before") Instant before);
+}
@@ -1,10 +1,63 @@
 package com.fitness.gym.repository;
 
+import com.fitness.gym.dto.SupplementDetail;
+import com.fitness.gym.dto.SupplementPrice;
+import com.fitness.gym.dto.SupplementSearchDocument;
+import com.fitness.gym.dto.SupplementSummary;
 import com.fitness.gym.model.Supplement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface SupplementRepository extends JpaRepository<Supplement, Long> {
-    List<Supplement> findByCategory(String category);
     List<Supplement> findByIsAvailableTrue();
+
+    // Column-limited reads for the catalog endpoints
+    List<SupplementSummary> findSummaryByIsAvailableTrueOrderByIdAsc();
+    List<SupplementSummary> findSummaryByCategory(String category);
+    Optional<SupplementDetail> findDetailById(Long id);
+    List<SupplementSearchDocument> findSearchDocumentByIsAvailableTrue();
+    Optional<SupplementSearchDocument> findSearchDocumentById(Long id);
+    List<SupplementDetail> findDetailByIdInAndIsAvailableTrue(Collection<Long> ids);
+    List<SupplementPrice> findPriceBy();
+
+    // Keyset-paged reads; Spring Data appends the id to the sort so every position is unique
+    Window<SupplementSummary> findByIsAvailableTrue(ScrollPosition position, Sort sort, Limit limit);
+    Window<SupplementSummary> findByCategoryAndIsAvailableTrue(String category, ScrollPosition position, Sort sort, Limit limit);
+
+    // Conditional so concurrent checkouts cannot oversell; a null stock quantity means the item is not tracked
+    @Modifying
+    @Query("update Supplement s set s.stockQuantity = s.stockQuantity - :quantity "
+            + "where s.id = :id and (s.stockQuantity is null or s.stockQuantity >= :quantity)")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Supplement s set s.stockQuantity = s.stockQuantity + :quantity "
+            + "where s.id = :id and s.stockQuantity is not null")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Relative to the current row, so reservations made since the caller read it are kept
+    @Transactional
+    @Modifying
+    @Query("update Supplement s set s.stockQuantity = s.stockQuantity + :delta "
+            + "where s.id = :id and s.stockQuantity is not null and s.stockQuantity + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
+    // With an expected image, only applies while the supplement still shows it
+    @Transactional
+    @Modifying
+    @Query("update Supplement s set s.imageUrl = :imageUrl, s.imageCardUrl = :cardUrl, s.imageThumbUrl = :thumbUrl "
+            + "where s.id = :id and (:expected is null or s.imageUrl = :expected)")
+    int updateImages(@Param("id") Long id, @Param("expected") String expectedImageUrl, @Param("imageUrl") String imageUrl,
+                     @Param("cardUrl") String cardUrl, @Param("thumbUrl") String thumbUrl);
 }
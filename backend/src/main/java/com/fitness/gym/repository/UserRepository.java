@@ -1,11 +1,56 @@
 package com.fitness.gym.repository;
 
+import com.fitness.gym.dto.UserProfile;
 import com.fitness.gym.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // Roles are lazy; these load them in the same query for the paths that issue tokens
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByEmail(String email);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesById(Long id);
+
     boolean existsByEmail(String email);
+    Optional<UserProfile> findProfileByEmail(String email);
+
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("select u.email as email, u.tokenVersion as tokenVersion, u.updatedAt as updatedAt from User u")
+    List<UserTokenVersion> findAllTokenVersions();
+
+    @Query("select u.email as email, u.tokenVersion as tokenVersion, u.updatedAt as updatedAt from User u where u.updatedAt >= :since")
+    List<UserTokenVersion> findTokenVersionsUpdatedSince(@Param("since") Instant since);
+
+    @Query("select u.email as email, u.tokenVersion as tokenVersion, u.updatedAt as updatedAt from User u where u.email = :email")
+    Optional<UserTokenVersion> findTokenVersionByEmail(@Param("email") String email);
+
+    @Query("select u.id as id, u.email as email, u.fitnessGoal as fitnessGoal, u.weight as weight, u.height as height, "
+            + "u.age as age, u.updatedAt as updatedAt from User u")
+    List<RecommendationProfile> findAllRecommendationProfiles();
+
+    @Query("select u.id as id, u.email as email, u.fitnessGoal as fitnessGoal, u.weight as weight, u.height as height, "
+            + "u.age as age, u.updatedAt as updatedAt from User u where u.updatedAt >= :since")
+    List<RecommendationProfile> findRecommendationProfilesUpdatedSince(@Param("since") Instant since);
+
+    // Only applies while the profile still shows the picture the variants were made from
+    @Transactional
+    @Modifying
+    @Query("update User u set u.profilePicture = :full, u.profilePictureCardUrl = :card, u.profilePictureThumbUrl = :thumb "
+            + "where u.id = :id and u.profilePicture = :original")
+    int updateProfilePictureVariants(@Param("id") Long id, @Param("original") String original,
+                                     @Param("full") String full, @Param("card") String card, @Param("thumb") String thumb);
 }
@@ -0,0 +1,9 @@
+package com.fitness.gym.repository;
+
+import java.time.Instant;
+
+public interface UserTokenVersion {
+    String getEmail();
+    Integer getTokenVersion();
+    Instant getUpdatedAt();
+}
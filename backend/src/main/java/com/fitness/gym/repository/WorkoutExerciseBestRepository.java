@@ -0,0 +1,13 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.WorkoutExerciseBest;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WorkoutExerciseBestRepository extends JpaRepository<WorkoutExerciseBest, WorkoutExerciseBest.Key> {
+
+    // A superset of the pairs asked about when several users are involved; callers match on both fields
+    List<WorkoutExerciseBest> findByUserIdInAndExerciseIn(Collection<Long> userIds, Collection<String> exercises);
+}
@@ -0,0 +1,13 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.WorkoutRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WorkoutRollupRepository extends JpaRepository<WorkoutRollup, WorkoutRollup.Key> {
+
+    List<WorkoutRollup> findByUserIdAndExerciseAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+            Long userId, String exercise, String period, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,15 @@
+package com.fitness.gym.repository;
+
+import com.fitness.gym.model.WorkoutSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WorkoutSessionRepository extends JpaRepository<WorkoutSession, String> {
+
+    @Query("select s.id from WorkoutSession s where s.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+}
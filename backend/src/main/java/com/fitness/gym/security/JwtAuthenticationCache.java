@@ -0,0 +1,106 @@
+package com.fitness.gym.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of already verified tokens, keyed by a SHA-256 hash of the token so raw JWTs are not kept on heap.
+ * Entries expire at the token's own expiry or after the configured TTL, whichever comes first.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Access-ordered so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, CachedToken> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public JwtAuthenticationCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                                  @Value("${jwt.cache.ttl-ms:300000}") long ttlMs,
+                                  MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > JwtAuthenticationCache.this.maxEntries;
+            }
+        };
+
+        FunctionCounter.builder("jwt.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("jwt.cache.size", this, JwtAuthenticationCache::size).register(meterRegistry);
+    }
+
+    public CachedToken get(String token) {
+        String key = TokenHashing.sha256(token);
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            CachedToken entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public CachedToken put(String token, Date tokenExpiry, UserDetails userDetails, Integer tokenVersion) {
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        if (tokenExpiry != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiry.getTime());
+        }
+        String key = TokenHashing.sha256(token);
+        CachedToken entry = new CachedToken(userDetails, tokenVersion, expiresAt);
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+        return entry;
+    }
+
+    public void invalidateUser(String email) {
+        lock.lock();
+        try {
+            entries.values().removeIf(entry -> entry.userDetails.getUsername().equals(email));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record CachedToken(UserDetails userDetails, Integer tokenVersion, long expiresAt) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.fitness.gym.security;
 
+import com.fitness.gym.security.JwtAuthenticationCache.CachedToken;
 import com.fitness.gym.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
@@ -14,6 +17,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.stream.Collectors;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -23,16 +27,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromJWT(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
-                
+            CachedToken cached = StringUtils.hasText(jwt) ? authenticationCache.get(jwt) : null;
+
+            if (cached == null && StringUtils.hasText(jwt)) {
+                JwtClaims claims = tokenProvider.parseToken(jwt);
+                if (claims != null) {
+                    cached = authenticationCache.put(jwt, claims.expiration(), resolveUser(claims), claims.tokenVersion());
+                }
+            }
+
+            if (cached != null && tokenVersionRegistry.isCurrent(cached.userDetails().getUsername(), cached.tokenVersion())) {
+                UserDetails userDetails = cached.userDetails();
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -46,6 +63,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolveUser(JwtClaims claims) {
+        if (claims.tokenVersion() == null) {
+            // Legacy token without embedded roles
+            return customUserDetailsService.loadUserByUsername(claims.subject());
+        }
+        return User.withUsername(claims.subject())
+                .password("")
+                .authorities(claims.roles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
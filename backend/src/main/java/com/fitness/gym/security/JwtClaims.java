@@ -0,0 +1,11 @@
+package com.fitness.gym.security;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Verified contents of an access token, produced by a single parse in {@link JwtTokenProvider#parseToken}.
+ * {@code tokenVersion} is null for tokens issued before roles and versions were embedded.
+ */
+public record JwtClaims(String subject, Date expiration, List<String> roles, Integer tokenVersion) {
+}
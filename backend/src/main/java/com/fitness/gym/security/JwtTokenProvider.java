@@ -2,69 +2,228 @@ package com.fitness.gym.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Key;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    private static final String ROLES_CLAIM = "roles";
+    private static final String VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Key id stamped into the "kid" header of newly issued tokens
+    @Value("${jwt.key-id:primary}")
+    private String keyId;
+
+    // Retired keys that still verify during a rotation, as "kid:secret,kid:secret"
+    @Value("${jwt.previous-keys:}")
+    private String previousKeys;
+
+    // Optional file of "kid:secret" lines, re-read every jwt.keys-reload-ms; the first line is the signing key
+    @Value("${jwt.keys-file:}")
+    private String keysFile;
+
+    private final ReentrantLock rotationLock = new ReentrantLock();
+    private volatile KeyRing keyRing;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        keyRing = buildKeyRing(loadKeys(), null, Instant.now());
+
+        // The parser is immutable and thread-safe; the resolver reads whichever key ring is current
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Tokens issued before key ids were introduced carry no kid and were signed with jwt.secret
+                        String kid = header.getKeyId() != null ? header.getKeyId() : keyId;
+                        return keyRing.resolve(kid);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Picks up a rotation from {@code jwt.keys-file} without a restart and drops retired keys once every
+     * token they signed has expired. A failed read keeps the current keys.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys-reload-ms:60000}", initialDelayString = "${jwt.keys-reload-ms:60000}")
+    public void reloadKeys() {
+        rotationLock.lock();
+        try {
+            KeyRing current = keyRing;
+            KeyRing next = buildKeyRing(loadKeys(), current, Instant.now());
+            if (!next.currentKeyId().equals(current.currentKeyId())) {
+                log.info("Signing JWTs with key {} (was {})", next.currentKeyId(), current.currentKeyId());
+            }
+            keyRing = next;
+        } catch (RuntimeException e) {
+            log.warn("Could not reload JWT signing keys, keeping the current ones", e);
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    // Signing key first, then the keys that only verify
+    private Map<String, String> loadKeys() {
+        Map<String, String> secrets = new LinkedHashMap<>();
+        if (StringUtils.hasText(keysFile)) {
+            try {
+                for (String line : Files.readAllLines(Path.of(keysFile))) {
+                    if (!line.isBlank() && !line.strip().startsWith("#")) {
+                        putKey(secrets, line, "jwt.keys-file");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (secrets.isEmpty()) {
+                throw new IllegalStateException("jwt.keys-file has no keys");
+            }
+            return secrets;
+        }
+        secrets.put(keyId, jwtSecret);
+        if (StringUtils.hasText(previousKeys)) {
+            for (String entry : previousKeys.split(",")) {
+                putKey(secrets, entry, "jwt.previous-keys");
+            }
+        }
+        return secrets;
     }
 
-    public String generateToken(String email) {
+    private static void putKey(Map<String, String> secrets, String entry, String source) {
+        String[] parts = entry.strip().split(":", 2);
+        if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+            throw new IllegalStateException(source + " entries must look like kid:secret");
+        }
+        secrets.putIfAbsent(parts[0], parts[1]);
+    }
+
+    /**
+     * A key that stops signing keeps verifying for one access-token lifetime, whether or not it is still
+     * listed, and is dropped after that. Other listed keys count as retired from when they were first loaded;
+     * a key removed from the list stops verifying on the next reload.
+     */
+    private KeyRing buildKeyRing(Map<String, String> secrets, KeyRing previous, Instant now) {
+        String signingKeyId = secrets.keySet().iterator().next();
+        Key signingKey = hmacKey(secrets.get(signingKeyId));
+        Instant cutoff = now.minusMillis(jwtExpirationInMs);
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Map<String, Instant> retiredAt = new HashMap<>();
+        Set<String> formerSigningKeys = new HashSet<>();
+        verificationKeys.put(signingKeyId, signingKey);
+
+        if (previous != null) {
+            if (!previous.currentKeyId().equals(signingKeyId)) {
+                retiredAt.put(previous.currentKeyId(), now);
+                formerSigningKeys.add(previous.currentKeyId());
+                verificationKeys.put(previous.currentKeyId(), previous.signingKey());
+            }
+            for (String kid : previous.formerSigningKeys()) {
+                Instant retired = previous.retiredAt().get(kid);
+                if (!kid.equals(signingKeyId) && !retiredAt.containsKey(kid) && retired.isAfter(cutoff)) {
+                    retiredAt.put(kid, retired);
+                    formerSigningKeys.add(kid);
+                    verificationKeys.put(kid, previous.verificationKeys().get(kid));
+                }
+            }
+        }
+        secrets.forEach((kid, secret) -> {
+            if (verificationKeys.containsKey(kid)) {
+                return;
+            }
+            Instant retired = previous != null ? previous.retiredAt().getOrDefault(kid, now) : now;
+            if (retired.isAfter(cutoff)) {
+                retiredAt.put(kid, retired);
+                verificationKeys.put(kid, hmacKey(secret));
+            }
+        });
+        return new KeyRing(signingKeyId, signingKey, Map.copyOf(verificationKeys), Map.copyOf(retiredAt),
+                Set.copyOf(formerSigningKeys));
+    }
+
+    private static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String generateToken(String email, Collection<String> roles, int tokenVersion) {
+        KeyRing ring = keyRing;
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, ring.currentKeyId())
                 .setSubject(email)
-                .setIssuedAt(new Date())
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .claim(VERSION_CLAIM, tokenVersion)
+                .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(ring.signingKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getEmailFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the token once and returns its claims, or null when the token is invalid or expired.
+     */
+    public JwtClaims parseToken(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new JwtClaims(claims.getSubject(), claims.getExpiration(), readRoles(claims),
+                    claims.get(VERSION_CLAIM, Integer.class));
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Invalid signature, malformed, expired, unsupported or empty token
+            return null;
+        }
+    }
 
-        return claims.getSubject();
+    private static List<String> readRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (roles instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return Collections.emptyList();
     }
 
-    public boolean validateToken(String authToken) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException ex) {
-            // Invalid JWT signature
-            return false;
-        } catch (MalformedJwtException ex) {
-            // Invalid JWT token
-            return false;
-        } catch (ExpiredJwtException ex) {
-            // Expired JWT token
-            return false;
-        } catch (UnsupportedJwtException ex) {
-            // Unsupported JWT token
-            return false;
-        } catch (IllegalArgumentException ex) {
-            // JWT claims string is empty
-            return false;
+    private record KeyRing(String currentKeyId, Key signingKey, Map<String, Key> verificationKeys,
+                           Map<String, Instant> retiredAt, Set<String> formerSigningKeys) {
+        Key resolve(String kid) {
+            Key key = verificationKeys.get(kid);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+            }
+            return key;
         }
     }
 }
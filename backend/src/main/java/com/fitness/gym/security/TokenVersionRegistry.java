@@ -0,0 +1,115 @@
+package com.fitness.gym.security;
+
+import com.fitness.gym.repository.UserRepository;
+import com.fitness.gym.repository.UserTokenVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of every user's token version, used to revoke stateless access tokens without a
+ * per-request query. Rows changed since the last poll are pulled on a short interval; a periodic full
+ * reload drops users that have been deleted on other instances.
+ * <p>
+ * {@code updated_at} is stamped before the transaction commits, so a row can become visible with a timestamp
+ * behind the watermark. Each poll therefore re-reads the last {@code jwt.version.settle-ms} before the
+ * watermark as well; re-applying a row is harmless.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    // Marks an email with no matching user so repeated tokens for it don't fall through to the database
+    private static final int UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+    private final long fullReloadIntervalMs;
+    private final long settleMs;
+
+    private volatile Map<String, Integer> versions = new ConcurrentHashMap<>();
+    private volatile Instant watermark = Instant.EPOCH;
+    private volatile long lastFullReload;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${jwt.version.full-reload-ms:600000}") long fullReloadIntervalMs,
+                                @Value("${jwt.version.settle-ms:30000}") long settleMs) {
+        this.userRepository = userRepository;
+        this.fullReloadIntervalMs = fullReloadIntervalMs;
+        this.settleMs = settleMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fullReload() {
+        long startedAt = System.currentTimeMillis();
+        Map<String, Integer> reloaded = new ConcurrentHashMap<>();
+        Instant newest = Instant.EPOCH;
+        for (UserTokenVersion row : userRepository.findAllTokenVersions()) {
+            reloaded.put(row.getEmail(), versionOf(row));
+            newest = later(newest, row.getUpdatedAt());
+        }
+        versions = reloaded;
+        watermark = newest;
+        lastFullReload = startedAt;
+        log.debug("Loaded token versions for {} users", reloaded.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.version.refresh-ms:5000}")
+    public void refresh() {
+        if (System.currentTimeMillis() - lastFullReload >= fullReloadIntervalMs) {
+            fullReload();
+            return;
+        }
+        List<UserTokenVersion> changed = userRepository.findTokenVersionsUpdatedSince(watermark.minusMillis(settleMs));
+        Instant newest = watermark;
+        for (UserTokenVersion row : changed) {
+            versions.put(row.getEmail(), versionOf(row));
+            newest = later(newest, row.getUpdatedAt());
+        }
+        watermark = newest;
+    }
+
+    /**
+     * Whether a token carrying the given version is still valid for this user. Tokens issued before
+     * versions were embedded (null) are accepted and resolved against the database by the caller.
+     */
+    public boolean isCurrent(String email, Integer tokenVersion) {
+        if (tokenVersion == null) {
+            return true;
+        }
+        Integer current = versions.get(email);
+        if (current == null) {
+            // Registered on another instance since the last poll
+            current = userRepository.findTokenVersionByEmail(email)
+                    .map(TokenVersionRegistry::versionOf)
+                    .orElse(UNKNOWN_USER);
+            versions.put(email, current);
+        }
+        return current != UNKNOWN_USER && current.equals(tokenVersion);
+    }
+
+    public void update(String email, int tokenVersion) {
+        versions.put(email, tokenVersion);
+    }
+
+    public void remove(String email) {
+        versions.put(email, UNKNOWN_USER);
+    }
+
+    private static int versionOf(UserTokenVersion row) {
+        return row.getTokenVersion() != null ? row.getTokenVersion() : 0;
+    }
+
+    private static Instant later(Instant current, Instant candidate) {
+        return candidate != null && candidate.isAfter(current) ? candidate : current;
+    }
+}
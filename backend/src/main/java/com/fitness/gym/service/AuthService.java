@@ -3,26 +3,34 @@ package com.fitness.gym.service;
 import com.fitness.gym.dto.AuthResponse;
 import com.fitness.gym.dto.LoginRequest;
 import com.fitness.gym.dto.RegisterRequest;
+import com.fitness.gym.dto.UserProfile;
 import com.fitness.gym.dto.ProfileUpdateRequest;
 import com.fitness.gym.dto.ChangePasswordRequest;
+import com.fitness.gym.dto.RefreshTokenRequest;
 import com.fitness.gym.model.User;
 import com.fitness.gym.repository.UserRepository;
+import com.fitness.gym.security.JwtAuthenticationCache;
 import com.fitness.gym.security.JwtTokenProvider;
+import com.fitness.gym.security.PasswordHashingExecutor;
+import com.fitness.gym.security.TokenVersionRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class AuthService {
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -32,43 +40,102 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
-    public AuthResponse login(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
-
-        User user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow();
-        String token = tokenProvider.generateToken(loginRequest.getEmail());
-        
-        return new AuthResponse(token, user.getEmail(), user.getFirstName(), user.getLastName());
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private SupplementRecommendations supplementRecommendations;
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @Value("${security.auth.io-threads:8}")
+    private int ioThreads;
+
+    private String unknownUserHash;
+
+    // Saves and token issue after a hash run here, so slow database calls never hold a hashing slot
+    private ExecutorService ioExecutor;
+
+    @PostConstruct
+    void init() {
+        unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        ioExecutor = Executors.newFixedThreadPool(ioThreads, workerThreads.io("auth-io"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ioExecutor.shutdown();
+    }
+
+    public CompletableFuture<AuthResponse> login(LoginRequest loginRequest) {
+        User user = userRepository.findWithRolesByEmail(loginRequest.getEmail()).orElse(null);
+        // Unknown emails are checked against a dummy hash so they take as long as a wrong password
+        String storedHash = user != null ? user.getPassword() : unknownUserHash;
+
+        return passwordHashingExecutor.submit(() -> {
+            if (loginRequest.getPassword() == null
+                    || !passwordEncoder.matches(loginRequest.getPassword(), storedHash)
+                    || user == null) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            // Move the stored hash to the configured algorithm and cost while we have the raw password
+            return passwordEncoder.upgradeEncoding(storedHash) ? passwordEncoder.encode(loginRequest.getPassword()) : null;
+        }).thenApplyAsync(upgradedHash -> {
+            if (upgradedHash != null) {
+                user.setPassword(upgradedHash);
+                userRepository.save(user);
+            }
+            return authResponse(user);
+        }, ioExecutor);
     }
 
-    public AuthResponse register(RegisterRequest registerRequest) {
+    public CompletableFuture<AuthResponse> register(RegisterRequest registerRequest) {
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
             throw new RuntimeException("Email is already taken!");
         }
 
-        User user = new User();
-        user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-        user.setFirstName(registerRequest.getFirstName());
-        user.setLastName(registerRequest.getLastName());
-        user.setWeight(registerRequest.getWeight());
-        user.setHeight(registerRequest.getHeight());
-        user.setFitnessGoal(registerRequest.getFitnessGoal());
-        user.setRoles(Collections.singleton("ROLE_USER"));
-
-        userRepository.save(user);
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(registerRequest.getPassword()))
+                .thenApplyAsync(passwordHash -> {
+                    User user = new User();
+                    user.setEmail(registerRequest.getEmail());
+                    user.setPassword(passwordHash);
+                    user.setFirstName(registerRequest.getFirstName());
+                    user.setLastName(registerRequest.getLastName());
+                    user.setWeight(registerRequest.getWeight());
+                    user.setHeight(registerRequest.getHeight());
+                    user.setFitnessGoal(registerRequest.getFitnessGoal());
+                    user.setRoles(Collections.singleton("ROLE_USER"));
+
+                    userRepository.save(user);
+                    tokenVersionRegistry.update(user.getEmail(), user.getTokenVersion());
+
+                    return authResponse(user);
+                }, ioExecutor);
+    }
 
-        String token = tokenProvider.generateToken(user.getEmail());
-        return new AuthResponse(token, user.getEmail(), user.getFirstName(), user.getLastName());
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token, without re-checking the password.
+     * The old token is only spent if the new pair is stored; revoking a reused token's family always commits.
+     */
+    @Transactional(noRollbackFor = RefreshTokenReusedException.class)
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        Long userId = refreshTokenService.consume(request.getRefreshToken());
+        User user = userRepository.findWithRolesById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return authResponse(user);
     }
 
-    public User updateProfile(ProfileUpdateRequest profileUpdateRequest, String token) {
-        String email = tokenProvider.getEmailFromJWT(token);
+    public UserProfile updateProfile(ProfileUpdateRequest profileUpdateRequest, String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -92,67 +159,64 @@ public class AuthService {
             user.setAge(profileUpdateRequest.getAge());
         }
         if (profileUpdateRequest.getProfilePicture() != null) {
+            if (!profileUpdateRequest.getProfilePicture().equals(user.getProfilePicture())) {
+                // The resized variants belong to the old picture
+                user.setProfilePictureThumbUrl(null);
+                user.setProfilePictureCardUrl(null);
+            }
             user.setProfilePicture(profileUpdateRequest.getProfilePicture());
         }
 
         User savedUser = userRepository.save(user);
-        
-        // Return a clean user object without problematic relationships
-        User cleanUser = new User();
-        cleanUser.setId(savedUser.getId());
-        cleanUser.setEmail(savedUser.getEmail());
-        cleanUser.setFirstName(savedUser.getFirstName());
-        cleanUser.setLastName(savedUser.getLastName());
-        cleanUser.setWeight(savedUser.getWeight());
-        cleanUser.setHeight(savedUser.getHeight());
-        cleanUser.setFitnessGoal(savedUser.getFitnessGoal());
-        cleanUser.setAge(savedUser.getAge());
-        cleanUser.setProfilePicture(savedUser.getProfilePicture());
-        
-        return cleanUser;
+        authenticationCache.invalidateUser(email);
+        supplementRecommendations.profileChanged(savedUser);
+
+        return UserProfile.from(savedUser);
     }
 
-    public User getProfile(String token) {
-        String email = tokenProvider.getEmailFromJWT(token);
-        User user = userRepository.findByEmail(email)
+    @QueryBudget(1)
+    public UserProfile getProfile(String email) {
+        return userRepository.findProfileByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // Return a clean user object without problematic relationships
-        User cleanUser = new User();
-        cleanUser.setId(user.getId());
-        cleanUser.setEmail(user.getEmail());
-        cleanUser.setFirstName(user.getFirstName());
-        cleanUser.setLastName(user.getLastName());
-        cleanUser.setWeight(user.getWeight());
-        cleanUser.setHeight(user.getHeight());
-        cleanUser.setFitnessGoal(user.getFitnessGoal());
-        cleanUser.setAge(user.getAge());
-        cleanUser.setProfilePicture(user.getProfilePicture());
-        
-        return cleanUser;
     }
 
-    public void changePassword(ChangePasswordRequest request, String token) {
-        String email = tokenProvider.getEmailFromJWT(token);
-        User user = userRepository.findByEmail(email)
+    public CompletableFuture<AuthResponse> changePassword(ChangePasswordRequest request, String email) {
+        User user = userRepository.findWithRolesByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Verify current password
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-            throw new RuntimeException("Current password is incorrect");
-        }
-
-        // Update to new password
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+        return passwordHashingExecutor.submit(() -> {
+            // Verify current password
+            if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+                throw new RuntimeException("Current password is incorrect");
+            }
+            return passwordEncoder.encode(request.getNewPassword());
+        }).thenApplyAsync(newPasswordHash -> {
+            // Update to new password and revoke every token issued with the old one
+            user.setPassword(newPasswordHash);
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            userRepository.save(user);
+            tokenVersionRegistry.update(email, user.getTokenVersion());
+            authenticationCache.invalidateUser(email);
+            refreshTokenService.revokeAll(user.getId());
+
+            return authResponse(user);
+        }, ioExecutor);
     }
 
-    public void deleteAccount(String token) {
-        String email = tokenProvider.getEmailFromJWT(token);
+    public void deleteAccount(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Delete the user
+        refreshTokenService.revokeAll(user.getId());
         userRepository.delete(user);
+        tokenVersionRegistry.remove(email);
+        authenticationCache.invalidateUser(email);
+    }
+
+    private AuthResponse authResponse(User user) {
+        String token = tokenProvider.generateToken(user.getEmail(), user.getRoles(), user.getTokenVersion());
+        String refreshToken = refreshTokenService.issue(user);
+        return new AuthResponse(token, refreshToken, user.getEmail(), user.getFirstName(), user.getLastName());
     }
 }
@@ -0,0 +1,107 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.dto.WorkoutRoutine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates plans with an OpenAI-compatible chat completions API (DeepSeek by default). The key stays on
+ * the server instead of being shipped to the browser.
+ */
+@Component
+@ConditionalOnProperty(name = "workouts.provider", havingValue = "chat")
+public class ChatWorkoutPlanProvider implements WorkoutPlanProvider {
+
+    private static final String PROMPT = """
+            Generate a 1-week workout routine for a %s level person.
+
+            Preferences:
+            - Goal: %s
+            - Focus Areas: %s
+            - Available Equipment: %s
+            - Workout Frequency: %d days per week
+
+            The user will repeat this 1-week plan for %s. Include every day of the week (Day 1 to Day 7), even \
+            if some days are rest or active recovery days. Each day should have a list of exercises or a note if \
+            it is a rest day.
+
+            Respond ONLY with valid JSON in the following format, without explanations or Markdown:
+            {"workoutPlan": {"name": "Workout Program Name", "description": "Brief description (mention that this \
+            week is repeated for the selected duration)", "duration": "1 week", "days": [{"day": 1, "exercises": \
+            [{"name": "Exercise Name or 'Rest'", "sets": 3, "reps": "Reps or ''", "notes": "Any notes"}]}], \
+            "tips": ["Training tips"]}}""";
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final String model;
+
+    public ChatWorkoutPlanProvider(ObjectMapper objectMapper,
+                                   @Value("${workouts.llm.base-url:https://api.deepseek.com/v1}") String baseUrl,
+                                   @Value("${workouts.llm.api-key}") String apiKey,
+                                   @Value("${workouts.llm.model:deepseek-chat}") String model,
+                                   @Value("${workouts.llm.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                   @Value("${workouts.llm.read-timeout-ms:60000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+        this.objectMapper = objectMapper;
+        this.model = model;
+    }
+
+    @Override
+    public String name() {
+        return "chat-" + model + "-v1";
+    }
+
+    @Override
+    public WorkoutRoutine generate(WorkoutPlanRequest request) {
+        String prompt = PROMPT.formatted(request.experienceLevel(), request.goal(),
+                String.join(", ", request.focusAreas()), String.join(", ", request.equipment()),
+                request.frequency(), request.duration());
+        JsonNode response = restClient.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of(
+                        "model", model,
+                        "messages", List.of(Map.of("role", "user", "content", prompt)),
+                        "temperature", 0.7,
+                        "max_tokens", 2000))
+                .retrieve()
+                .body(JsonNode.class);
+
+        String content = response == null ? "" : response.path("choices").path(0).path("message").path("content").asText().strip();
+        // Models sometimes wrap the JSON in a Markdown code fence despite the instructions
+        if (content.startsWith("```")) {
+            content = content.replaceFirst("^```[a-zA-Z]*\\s*", "").replaceFirst("\\s*```$", "");
+        }
+        try {
+            WorkoutRoutine routine = objectMapper.readValue(content, WorkoutRoutine.class);
+            if (routine.workoutPlan() == null || routine.workoutPlan().days() == null || routine.workoutPlan().days().isEmpty()) {
+                throw new IllegalStateException("Provider returned a plan without days");
+            }
+            return routine;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Provider returned invalid JSON", e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.StripeResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses repeated checkout requests for the same key into one Stripe call. Requests that arrive while the
+ * first is in flight share its result; a successful result is then replayed for
+ * {@code checkout.idempotency.ttl-ms}. Failures are not kept, so the client can retry.
+ */
+@Component
+public class CheckoutRequestCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final Counter replayed;
+
+    public CheckoutRequestCache(@Value("${checkout.idempotency.ttl-ms:60000}") long ttlMs,
+                                MeterRegistry meterRegistry) {
+        this.ttlMs = ttlMs;
+        this.replayed = Counter.builder("checkout.idempotency.replayed")
+                .description("Checkout requests answered from an earlier or in-flight request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} unless a request with the same key is in flight or recently succeeded. The
+     * fingerprint identifies the cart; reusing a key for a different cart is refused.
+     */
+    public CompletableFuture<StripeResponse> execute(String key, String fingerprint, Supplier<CompletableFuture<StripeResponse>> call) {
+        long now = System.currentTimeMillis();
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry entry = entries.compute(key, (k, current) -> current != null && !current.isExpired(now, ttlMs) ? current : created);
+
+        if (!entry.fingerprint().equals(fingerprint)) {
+            return CompletableFuture.completedFuture(StripeResponse.builder()
+                    .status("Failed")
+                    .message("Idempotency-Key was already used for a different cart")
+                    .build());
+        }
+        if (entry != created) {
+            replayed.increment();
+            // A copy, so one caller cancelling cannot complete the shared result for the others
+            return entry.result().copy();
+        }
+
+        CompletableFuture<StripeResponse> pending;
+        try {
+            pending = call.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        pending.whenComplete((response, error) -> {
+            if (error != null || "Failed".equalsIgnoreCase(response.getStatus())) {
+                entries.remove(key, entry);
+            }
+            if (error != null) {
+                entry.result().completeExceptionally(error);
+            } else {
+                entry.result().complete(response);
+            }
+        });
+        return entry.result().copy();
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.idempotency.ttl-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now, ttlMs));
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<StripeResponse> result, long createdAt) {
+        Entry(String fingerprint, CompletableFuture<StripeResponse> result) {
+            this(fingerprint, result, System.currentTimeMillis());
+        }
+
+        // In-flight entries never expire; the window starts from when the request was made
+        boolean isExpired(long now, long ttlMs) {
+            return result.isDone() && now - createdAt >= ttlMs;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.fitness.gym.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes Hibernate's session factory statistics under {@code hibernate.*} in /actuator/metrics, so a rise in
+ * statements or lazy loads per request shows up without turning on SQL logging. Only registered when
+ * {@code hibernate.generate_statistics} is on.
+ */
+@Component
+public class HibernateStatisticsMetrics {
+
+    public HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        register(meterRegistry, statistics, "hibernate.statements.prepared", "JDBC statements prepared",
+                Statistics::getPrepareStatementCount);
+        register(meterRegistry, statistics, "hibernate.queries.executed", "HQL and native queries executed",
+                Statistics::getQueryExecutionCount);
+        register(meterRegistry, statistics, "hibernate.entities.fetched", "Entities loaded by a separate select, such as a lazy load",
+                Statistics::getEntityFetchCount);
+        register(meterRegistry, statistics, "hibernate.collections.fetched", "Collections loaded by a separate select",
+                Statistics::getCollectionFetchCount);
+    }
+
+    private static void register(MeterRegistry meterRegistry, Statistics statistics, String name, String description,
+                                 ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,190 @@
+package com.fitness.gym.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Produces resized JPEG variants of uploaded images in the background. Variants are written next to the
+ * original under {@code variants/<original key>/<variant>.jpg}, so regenerating one overwrites it in place.
+ * The original stays in the bucket untouched.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final S3Service s3Service;
+    private final MediaCache mediaCache;
+    private final ThreadPoolExecutor executor;
+    private final long maxPixels;
+    private final float quality;
+
+    public ImageVariantService(S3Service s3Service,
+                               MediaCache mediaCache,
+                               @Value("${images.variants.threads:2}") int threads,
+                               @Value("${images.variants.queue:100}") int queueCapacity,
+                               @Value("${images.variants.max-pixels:40000000}") long maxPixels,
+                               @Value("${images.variants.jpeg-quality:0.85}") float quality) {
+        this.s3Service = s3Service;
+        this.mediaCache = mediaCache;
+        this.maxPixels = maxPixels;
+        this.quality = quality;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues variant generation for an uploaded original. {@code onComplete} runs on the worker with the
+     * public URL of each variant. When the queue is full the request is dropped and the original stays in use.
+     */
+    public void generate(String originalKey, Consumer<Map<Variant, String>> onComplete) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onComplete.accept(process(originalKey));
+                } catch (Exception e) {
+                    log.warn("Could not create image variants for {}", originalKey, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Image variant queue is full, skipping {}", originalKey);
+        }
+    }
+
+    public static String variantKey(String originalKey, Variant variant) {
+        return "variants/" + originalKey + "/" + variant.name().toLowerCase() + ".jpg";
+    }
+
+    private Map<Variant, String> process(String originalKey) throws IOException {
+        BufferedImage original;
+        try (InputStream input = s3Service.download(originalKey)) {
+            original = read(input);
+        }
+
+        Map<Variant, String> urls = new EnumMap<>(Variant.class);
+        for (Variant variant : Variant.values()) {
+            String key = variantKey(originalKey, variant);
+            s3Service.putBytes(key, encodeJpeg(resize(original, variant.maxDimension)), "image/jpeg");
+            // Same key, new bytes: drop any copy /api/media still holds
+            mediaCache.invalidate(key);
+            urls.put(variant, s3Service.publicUrl(key));
+        }
+        return urls;
+    }
+
+    // Checks the declared dimensions before decoding so a small file can't expand into a huge bitmap
+    private BufferedImage read(InputStream input) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IOException("Image is too large to process");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image inside a square of maxDimension, never enlarging it, on a white background for JPEG
+    private static BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        // Halve in steps first; a single bilinear pass from a much larger image aliases badly
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(quality);
+            params.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public enum Variant {
+        THUMB(160),
+        CARD(480),
+        FULL(1600);
+
+        private final int maxDimension;
+
+        Variant(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.security.TokenHashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Read-through copy of S3 objects on local disk, evicted least-recently-used once it grows past
+ * {@code media.cache.max-size}. Concurrent misses for the same key share one download. The index lives in
+ * memory only, so the directory is wiped at startup.
+ */
+@Component
+public class MediaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaCache.class);
+
+    private static final Pattern CACHE_FILE = Pattern.compile("[0-9a-f]{64}|fetch-.*\\.tmp");
+
+    private final S3Service s3Service;
+    private final Path directory;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    public MediaCache(S3Service s3Service,
+                      @Value("${media.cache.dir:${java.io.tmpdir}/gym-media-cache}") Path directory,
+                      @Value("${media.cache.max-size:1GB}") DataSize maxSize,
+                      MeterRegistry meterRegistry) throws IOException {
+        this.s3Service = s3Service;
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        Files.createDirectories(directory);
+        clearDirectory();
+
+        this.hits = Counter.builder("media.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("media.cache.misses").register(meterRegistry);
+        this.evictions = Counter.builder("media.cache.evictions").register(meterRegistry);
+        Gauge.builder("media.cache.size", this, cache -> cache.totalBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached copy of {@code key}, downloading it first on a miss. A file can be evicted after it
+     * was returned; since the entry was just used it is the last to go, and callers retry on a missing file.
+     */
+    public Entry get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return entry;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> pending = loading.putIfAbsent(key, created);
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Entry entry = fetch(key);
+            admit(key, entry);
+            created.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                totalBytes -= entry.size();
+                deleteQuietly(entry.file());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry fetch(String key) {
+        Path file = directory.resolve(TokenHashing.sha256(key));
+        try {
+            Path temp = Files.createTempFile(directory, "fetch-", ".tmp");
+            try (ResponseInputStream<GetObjectResponse> object = s3Service.download(key);
+                 DigestInputStream input = new DigestInputStream(object, MessageDigest.getInstance("SHA-256"));
+                 OutputStream output = Files.newOutputStream(temp)) {
+                long size = input.transferTo(output);
+                String etag = "\"" + HexFormat.of().formatHex(input.getMessageDigest().digest()) + "\"";
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return new Entry(file, size, etag, object.response().contentType());
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void admit(String key, Entry entry) {
+        lock.lock();
+        try {
+            Entry replaced = entries.put(key, entry);
+            if (replaced != null) {
+                totalBytes -= replaced.size();
+            }
+            totalBytes += entry.size();
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> candidate = eldest.next();
+                if (candidate.getKey().equals(key)) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= candidate.getValue().size();
+                deleteQuietly(candidate.getValue().file());
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Only removes files this cache writes, in case the directory is shared
+    private void clearDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> CACHE_FILE.matcher(file.getFileName().toString()).matches())
+                    .forEach(MediaCache::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached media {}", file, e);
+        }
+    }
+
+    /**
+     * A cached object. The ETag is the SHA-256 of the bytes on disk, so it is strong and stays the same
+     * across instances and re-downloads.
+     */
+    public record Entry(Path file, long size, String etag, String contentType) {
+    }
+}
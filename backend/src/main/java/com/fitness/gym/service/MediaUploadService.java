@@ -0,0 +1,71 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.UserRepository;
+import com.fitness.gym.service.ImageVariantService.Variant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Uploads that belong to a user or a supplement. The original is stored and shown right away; the
+ * resized variants replace it on the entity once the background pipeline has produced them.
+ */
+@Service
+public class MediaUploadService {
+
+    @Autowired
+    private S3Service s3Service;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private SupplementService supplementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public String uploadProfilePicture(String email, MultipartFile file) throws IOException {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        String key = "profiles/" + user.getId() + "/" + UUID.randomUUID();
+        s3Service.uploadFile(key, file);
+        return attachProfilePicture(user, key);
+    }
+
+    public String uploadSupplementImage(Long supplementId, MultipartFile file) throws IOException {
+        supplementService.getSupplementById(supplementId);
+        String key = "supplements/" + supplementId + "/" + UUID.randomUUID();
+        s3Service.uploadFile(key, file);
+        return attachSupplementImage(supplementId, key);
+    }
+
+    /**
+     * Makes an object already in the bucket the user's profile picture and queues its variants. Returns the
+     * URL of the original.
+     */
+    public String attachProfilePicture(User user, String key) {
+        String originalUrl = s3Service.publicUrl(key);
+        user.setProfilePicture(originalUrl);
+        user.setProfilePictureCardUrl(null);
+        user.setProfilePictureThumbUrl(null);
+        userRepository.save(user);
+
+        imageVariantService.generate(key, urls -> userRepository.updateProfilePictureVariants(user.getId(), originalUrl,
+                urls.get(Variant.FULL), urls.get(Variant.CARD), urls.get(Variant.THUMB)));
+        return originalUrl;
+    }
+
+    public String attachSupplementImage(Long supplementId, String key) {
+        String originalUrl = s3Service.publicUrl(key);
+        supplementService.updateImages(supplementId, null, originalUrl, null, null);
+
+        imageVariantService.generate(key, urls -> supplementService.updateImages(supplementId, originalUrl,
+                urls.get(Variant.FULL), urls.get(Variant.CARD), urls.get(Variant.THUMB)));
+        return originalUrl;
+    }
+}
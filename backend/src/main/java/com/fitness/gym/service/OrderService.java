@@ -0,0 +1,149 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.model.Order;
+import com.fitness.gym.model.OrderStatus;
+import com.fitness.gym.model.Purchase;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.OrderRepository;
+import com.fitness.gym.repository.PurchaseRepository;
+import com.fitness.gym.repository.SupplementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Orders created at checkout. Stock is taken with a conditional decrement per line inside one short
+ * transaction before the Stripe session is created, so no row lock is held while Stripe is called. Orders
+ * that are never paid give their stock back once the reservation expires.
+ */
+@Service
+public class OrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    // Stripe rejects a session expiry less than 30 minutes out
+    private static final long MIN_RESERVATION_MS = 31 * 60 * 1000L;
+    private static final int REAPER_BATCH_SIZE = 100;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${checkout.reservation-ttl-ms:1860000}")
+    private long reservationTtlMs;
+
+    /**
+     * Creates a PENDING order for lines already priced by {@link SupplementPriceMap} and reserves their
+     * stock. Fails without reserving anything if any line is out of stock.
+     */
+    @QueryBudget(0)
+    @Transactional
+    public Order reserve(User user, List<SupplementPriceMap.Line> lines) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setReservedUntil(Instant.now().plusMillis(Math.max(reservationTtlMs, MIN_RESERVATION_MS)));
+
+        BigDecimal total = BigDecimal.ZERO;
+        // Lines arrive in supplement id order, so two carts sharing items cannot deadlock each other
+        for (SupplementPriceMap.Line line : lines) {
+            SupplementPriceMap.Price price = line.price();
+            if (supplementRepository.reserveStock(price.supplementId(), line.quantity()) == 0) {
+                throw new RuntimeException("Not enough stock for " + price.name());
+            }
+
+            Purchase purchase = new Purchase();
+            purchase.setOrder(order);
+            purchase.setUser(user);
+            purchase.setSupplement(supplementRepository.getReferenceById(price.supplementId()));
+            purchase.setQuantityPurchased(line.quantity());
+            purchase.setUnitPrice(price.amount());
+            order.getItems().add(purchase);
+            total = total.add(line.total());
+        }
+        order.setTotalAmount(total);
+        return orderRepository.save(order);
+    }
+
+    @Transactional
+    public void attachSession(Long orderId, String sessionId) {
+        orderRepository.attachSession(orderId, sessionId);
+    }
+
+    /**
+     * Moves a PENDING order to {@code status} and returns its stock. Does nothing if the order was already
+     * paid or released.
+     */
+    @Transactional
+    public boolean release(Long orderId, OrderStatus status) {
+        if (orderRepository.transition(orderId, OrderStatus.PENDING, status) == 0) {
+            return false;
+        }
+        for (Purchase line : purchaseRepository.findByOrderId(orderId)) {
+            supplementRepository.releaseStock(line.getSupplement().getId(), line.getQuantityPurchased());
+        }
+        return true;
+    }
+
+    /**
+     * Marks the order paid and its lines purchased. Repeated calls are no-ops. An order that was released
+     * before the payment arrived takes its stock again; if the stock is gone by then, it is logged for
+     * follow-up rather than refused, because the customer has already paid.
+     */
+    @Transactional
+    public void markPaid(Long orderId) {
+        if (orderRepository.transition(orderId, OrderStatus.PENDING, OrderStatus.PAID) == 0) {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+            if (order.getStatus() == OrderStatus.PAID) {
+                return;
+            }
+            if (orderRepository.transition(orderId, order.getStatus(), OrderStatus.PAID) == 0) {
+                throw new RuntimeException("Order " + orderId + " changed while being marked paid");
+            }
+            for (Purchase line : purchaseRepository.findByOrderId(orderId)) {
+                if (supplementRepository.reserveStock(line.getSupplement().getId(), line.getQuantityPurchased()) == 0) {
+                    log.warn("Order {} was paid after its reservation lapsed and supplement {} no longer has {} in stock",
+                            orderId, line.getSupplement().getId(), line.getQuantityPurchased());
+                }
+            }
+        }
+        purchaseRepository.markPurchased(orderId, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.reaper-ms:60000}")
+    public void expireReservations() {
+        List<Long> expired;
+        boolean failed = false;
+        do {
+            expired = orderRepository.findIdsByStatusAndReservedUntilBefore(OrderStatus.PENDING, Instant.now(), Limit.of(REAPER_BATCH_SIZE));
+            for (Long orderId : expired) {
+                try {
+                    // One transaction per order so a failure only leaves that order for the next run
+                    transactionTemplate.executeWithoutResult(status -> release(orderId, OrderStatus.EXPIRED));
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.warn("Could not release expired order {}", orderId, e);
+                }
+            }
+        } while (!failed && expired.size() == REAPER_BATCH_SIZE);
+    }
+}
@@ -0,0 +1,218 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.dto.PresignedUpload;
+import com.fitness.gym.dto.UploadCompletionRequest;
+import com.fitness.gym.dto.UploadTicketRequest;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.regions.providers.AwsRegionProvider;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Lets clients send files straight to S3. A ticket is bound to one key, {@code uploads/<userId>/<sha256>},
+ * and to the declared size, type and checksum, so S3 itself rejects anything else; the completion call then
+ * checks the stored object and attaches it to the profile or supplement like a regular upload.
+ */
+@Service
+public class PresignedUploadService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter AMZ_DAY = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final S3Presigner s3Presigner;
+    private final AwsCredentialsProvider credentialsProvider;
+    private final AwsRegionProvider regionProvider;
+    private final S3Service s3Service;
+    private final MediaUploadService mediaUploadService;
+    private final SupplementService supplementService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final String bucketName;
+    private final Duration ttl;
+
+    public PresignedUploadService(S3Presigner s3Presigner,
+                                  AwsCredentialsProvider credentialsProvider,
+                                  AwsRegionProvider regionProvider,
+                                  S3Service s3Service,
+                                  MediaUploadService mediaUploadService,
+                                  SupplementService supplementService,
+                                  UserRepository userRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${aws.s3.bucket-name}") String bucketName,
+                                  @Value("${s3.presign.ttl-ms:300000}") long ttlMs) {
+        this.s3Presigner = s3Presigner;
+        this.credentialsProvider = credentialsProvider;
+        this.regionProvider = regionProvider;
+        this.s3Service = s3Service;
+        this.mediaUploadService = mediaUploadService;
+        this.supplementService = supplementService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.bucketName = bucketName;
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    public PresignedUpload presignPut(String email, UploadTicketRequest request) {
+        String key = keyFor(findUser(email), request);
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presign -> presign
+                .signatureDuration(ttl)
+                .putObjectRequest(put -> put
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(request.getContentType())
+                        .contentLength(request.getSize())
+                        .checksumSHA256(base64(request.getSha256()))));
+
+        // Every signed header must be sent with these values; browsers set Host and Content-Length themselves
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(key, "PUT", presigned.url().toString(), headers, Map.of(), presigned.expiration());
+    }
+
+    /**
+     * Signs a browser POST policy (SigV4). The SDK has no presigner for these, so the policy document and
+     * signature are built here following the S3 POST Object rules.
+     */
+    public PresignedUpload presignPost(String email, UploadTicketRequest request) {
+        String key = keyFor(findUser(email), request);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant expiresAt = now.plus(ttl);
+        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+        String region = regionProvider.getRegion().id();
+        String credential = credentials.accessKeyId() + "/" + AMZ_DAY.format(now) + "/" + region + "/s3/aws4_request";
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("key", key);
+        fields.put("Content-Type", request.getContentType());
+        fields.put("x-amz-checksum-sha256", base64(request.getSha256()));
+        fields.put("x-amz-algorithm", "AWS4-HMAC-SHA256");
+        fields.put("x-amz-credential", credential);
+        fields.put("x-amz-date", AMZ_DATE.format(now));
+        if (credentials instanceof AwsSessionCredentials session) {
+            fields.put("x-amz-security-token", session.sessionToken());
+        }
+
+        List<Object> conditions = new ArrayList<>();
+        conditions.add(Map.of("bucket", bucketName));
+        fields.forEach((name, value) -> conditions.add(Map.of(name, value)));
+        conditions.add(List.of("content-length-range", request.getSize(), request.getSize()));
+        Map<String, Object> policy = new LinkedHashMap<>();
+        policy.put("expiration", DateTimeFormatter.ISO_INSTANT.format(expiresAt));
+        policy.put("conditions", conditions);
+
+        try {
+            String encodedPolicy = Base64.getEncoder().encodeToString(objectMapper.writeValueAsBytes(policy));
+            fields.put("policy", encodedPolicy);
+            fields.put("x-amz-signature", sign(credentials.secretAccessKey(), AMZ_DAY.format(now), region, encodedPolicy));
+        } catch (JsonProcessingException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign upload policy", e);
+        }
+
+        // The form goes to the bucket itself, i.e. the object URL without the key
+        String objectUrl = s3Service.objectUrl(key);
+        String bucketUrl = objectUrl.substring(0, objectUrl.length() - key.length());
+        return new PresignedUpload(key, "POST", bucketUrl, Map.of(), fields, expiresAt);
+    }
+
+    /**
+     * Called by the client once S3 has accepted the file. Only the uploader may claim a key, and completing
+     * the same upload twice is a no-op.
+     */
+    public String complete(String email, UploadCompletionRequest request) {
+        User user = findUser(email);
+        String key = request.getKey();
+        String prefix = "uploads/" + user.getId() + "/";
+        if (key == null || !key.startsWith(prefix) || !SHA256_HEX.matcher(key.substring(prefix.length())).matches()) {
+            throw new IllegalArgumentException("Unknown upload");
+        }
+        if (request.getTarget() == null) {
+            throw new IllegalArgumentException("Upload target is required");
+        }
+
+        String url = s3Service.publicUrl(key);
+        switch (request.getTarget()) {
+            case PROFILE_PICTURE -> {
+                if (!url.equals(user.getProfilePicture())) {
+                    s3Service.verifyUpload(key, base64(key.substring(prefix.length())));
+                    mediaUploadService.attachProfilePicture(user, key);
+                }
+            }
+            case SUPPLEMENT_IMAGE -> {
+                if (request.getSupplementId() == null) {
+                    throw new IllegalArgumentException("Supplement id is required");
+                }
+                if (!Objects.equals(url, supplementService.getSupplementById(request.getSupplementId()).getImageUrl())) {
+                    s3Service.verifyUpload(key, base64(key.substring(prefix.length())));
+                    mediaUploadService.attachSupplementImage(request.getSupplementId(), key);
+                }
+            }
+        }
+        return url;
+    }
+
+    // Content-addressed and scoped to the uploader, so users can't overwrite each other's files
+    private String keyFor(User user, UploadTicketRequest request) {
+        if (request.getSha256() == null || !SHA256_HEX.matcher(request.getSha256()).matches()) {
+            throw new IllegalArgumentException("sha256 must be a lowercase hex SHA-256 digest");
+        }
+        if (request.getSize() == null) {
+            throw new IllegalArgumentException("File size is required");
+        }
+        s3Service.checkUpload(request.getContentType(), request.getSize());
+        return "uploads/" + user.getId() + "/" + request.getSha256();
+    }
+
+    private User findUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private static String base64(String hex) {
+        return Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hex));
+    }
+
+    private static String sign(String secretKey, String day, String region, String policy) throws GeneralSecurityException {
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), day);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, policy));
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
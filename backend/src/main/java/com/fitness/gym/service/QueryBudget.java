@@ -0,0 +1,17 @@
+package com.fitness.gym.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SELECT statements a service method may issue, counting lazy loads it triggers and the queries of
+ * any budgeted methods it calls. Checked by {@link QueryBudgetGuard}. Writes are not counted; checkout writes
+ * once per cart line by design, while an extra read per row is the N+1 this is meant to catch.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,123 @@
+package com.fitness.gym.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enforces {@link QueryBudget}. Hibernate hands every statement to this inspector; while a budgeted method is
+ * running on the thread its SELECTs are counted, and a method that goes over its budget is logged with the
+ * statements it ran and counted in {@code persistence.query.budget.exceeded}. With
+ * {@code persistence.query-budget.fail-on-exceed} it throws instead, so a new N+1 breaks the first request
+ * that hits it in development. Work a method hands to another thread is not counted.
+ */
+@Aspect
+@Component
+public class QueryBudgetGuard implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetGuard.class);
+    private static final int LOGGED_STATEMENTS = 10;
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    private final boolean failOnExceed;
+    // Resolved on first use; aspects are created before most of the context
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public QueryBudgetGuard(@Value("${persistence.query-budget.fail-on-exceed:false}") boolean failOnExceed,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.failOnExceed = failOnExceed;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = current.get();
+        if (scope != null && isSelect(sql)) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    @Around("@annotation(budget)")
+    public Object enforce(ProceedingJoinPoint joinPoint, QueryBudget budget) throws Throwable {
+        Scope parent = current.get();
+        Scope scope = new Scope(parent);
+        current.set(scope);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            if (parent != null) {
+                current.set(parent);
+            } else {
+                current.remove();
+            }
+        }
+        if (scope.count > budget.value()) {
+            exceeded(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName(),
+                    scope, budget.value());
+        }
+        return result;
+    }
+
+    private void exceeded(String method, Scope scope, int budget) {
+        Counter.builder("persistence.query.budget.exceeded")
+                .description("Calls to a @QueryBudget method that issued more SELECTs than allowed")
+                .tag("method", method)
+                .register(meterRegistry.getObject())
+                .increment();
+        String message = method + " issued " + scope.count + " queries, budget is " + budget;
+        if (failOnExceed) {
+            throw new IllegalStateException(message + ": " + scope.statements);
+        }
+        log.warn("{}: {}", message, scope.statements);
+    }
+
+    private static boolean isSelect(String sql) {
+        String statement = sql.stripLeading();
+        // Skips a leading comment (hibernate.use_sql_comments)
+        if (statement.startsWith("/*") && statement.contains("*/")) {
+            statement = statement.substring(statement.indexOf("*/") + 2).stripLeading();
+        }
+        return statement.regionMatches(true, 0, "select", 0, 6) || statement.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private static final class Scope {
+        private final Scope parent;
+        private final List<String> statements = new ArrayList<>();
+        private int count;
+
+        Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        // Queries of a nested budgeted method count against every method up the call
+        void record(String sql) {
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                scope.count++;
+                if (scope.statements.size() < LOGGED_STATEMENTS) {
+                    scope.statements.add(sql);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fitness.gym.service;
+
+/**
+ * A refresh token was presented after it had already been exchanged. The user's refresh tokens are revoked
+ * before this is thrown, and transactions let it through without rolling that back.
+ */
+public class RefreshTokenReusedException extends RuntimeException {
+    public RefreshTokenReusedException() {
+        super("Refresh token was already used");
+    }
+}
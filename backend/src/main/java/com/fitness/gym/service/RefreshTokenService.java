@@ -0,0 +1,82 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.model.RefreshToken;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.RefreshTokenRepository;
+import com.fitness.gym.security.TokenHashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationInMs;
+
+    public String issue(User user) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(TokenHashing.sha256(rawToken));
+        refreshToken.setUserId(user.getId());
+        refreshToken.setExpiresAt(Instant.now().plusMillis(refreshExpirationInMs));
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    /**
+     * Marks the presented token as used and returns the id of the user it belongs to. A token that was
+     * already exchanged is treated as stolen and every refresh token of that user is revoked. Callers that
+     * issue the replacement should run both in one transaction, so a failed issue leaves the token unused.
+     */
+    @Transactional(noRollbackFor = RefreshTokenReusedException.class)
+    public Long consume(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new RuntimeException("Refresh token is missing");
+        }
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(TokenHashing.sha256(rawToken))
+                .orElseThrow(() -> new RuntimeException("Refresh token is invalid"));
+
+        if (refreshToken.getExpiresAt().isBefore(Instant.now())) {
+            throw new RuntimeException("Refresh token has expired");
+        }
+        if (refreshTokenRepository.markUsed(refreshToken.getId(), Instant.now()) == 0) {
+            refreshTokenRepository.deleteByUserId(refreshToken.getUserId());
+            throw new RefreshTokenReusedException();
+        }
+        return refreshToken.getUserId();
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-ms:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired refresh tokens", purged);
+        }
+    }
+}
@@ -1,33 +1,297 @@
 package com.fitness.gym.service;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Uploads stream from the multipart part (spooled to disk by the container) straight to S3. Small files go in
+ * one PUT; larger ones use an S3 multipart upload whose parts are sent in parallel, with at most
+ * {@code s3.upload.concurrency} parts per file held in memory at once.
+ */
 @Service
 public class S3Service {
 
+    // S3 rejects parts smaller than this, except the last
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
     private final S3Client s3Client;
     private final String bucketName;
+    private final long maxSize;
+    private final long multipartThreshold;
+    private final int partSize;
+    private final int concurrency;
+    private final Set<String> allowedTypes;
+    private final String mediaBaseUrl;
+    private final ExecutorService partUploader;
 
-    public S3Service(S3Client s3Client, @Value("${aws.s3.bucket-name}") String bucketName) {
+    public S3Service(S3Client s3Client,
+                     @Value("${aws.s3.bucket-name}") String bucketName,
+                     @Value("${s3.upload.max-size:20MB}") DataSize maxSize,
+                     @Value("${s3.upload.multipart-threshold:16MB}") DataSize multipartThreshold,
+                     @Value("${s3.upload.part-size:8MB}") DataSize partSize,
+                     @Value("${s3.upload.concurrency:4}") int concurrency,
+                     @Value("${s3.upload.threads:8}") int threads,
+                     @Value("${s3.upload.allowed-types:image/jpeg,image/png,image/webp,image/gif}") Set<String> allowedTypes,
+                     @Value("${media.public-base-url:}") String mediaBaseUrl,
+                     WorkerThreads workerThreads) {
         this.s3Client = s3Client;
         this.bucketName = bucketName;
+        this.maxSize = maxSize.toBytes();
+        this.multipartThreshold = multipartThreshold.toBytes();
+        this.partSize = Math.toIntExact(Math.max(partSize.toBytes(), MIN_PART_SIZE));
+        this.concurrency = concurrency;
+        this.allowedTypes = allowedTypes;
+        this.mediaBaseUrl = StringUtils.trimTrailingCharacter(mediaBaseUrl, '/');
+        this.partUploader = Executors.newFixedThreadPool(threads, workerThreads.io("s3-upload"));
+    }
+
+    /**
+     * Streams the file to S3 under {@code key} and returns the content type it was stored with, which is
+     * taken from the file's leading bytes rather than the client's header.
+     */
+    public String uploadFile(String key, MultipartFile file) throws IOException {
+        checkSize(file.getSize());
+
+        try (InputStream input = new BufferedInputStream(file.getInputStream())) {
+            String contentType = detectContentType(input);
+            checkType(contentType);
+            if (file.getContentType() != null && !file.getContentType().equalsIgnoreCase(contentType)) {
+                throw new IllegalArgumentException("File content does not match " + file.getContentType());
+            }
+
+            if (file.getSize() <= multipartThreshold) {
+                s3Client.putObject(
+                        PutObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .contentType(contentType)
+                                .build(),
+                        RequestBody.fromInputStream(input, file.getSize())
+                );
+            } else {
+                uploadMultipart(key, contentType, input);
+            }
+            return contentType;
+        }
+    }
+
+    /**
+     * Applies the same limits as {@link #uploadFile} to an upload the client will send to S3 itself.
+     */
+    public void checkUpload(String contentType, long size) {
+        checkSize(size);
+        checkType(contentType);
+    }
+
+    /**
+     * Confirms that an object uploaded directly by a client is within the limits, carries the expected
+     * SHA-256 and really is the image type it was stored as. Objects that fail are deleted.
+     */
+    public String verifyUpload(String key, String sha256Base64) {
+        HeadObjectResponse head;
+        try {
+            head = s3Client.headObject(request -> request
+                    .bucket(bucketName)
+                    .key(key)
+                    .checksumMode(ChecksumMode.ENABLED));
+        } catch (NoSuchKeyException e) {
+            throw new IllegalArgumentException("Upload not found");
+        }
+
+        try {
+            checkUpload(head.contentType(), head.contentLength());
+            if (!sha256Base64.equals(head.checksumSHA256())) {
+                throw new IllegalArgumentException("Upload checksum does not match");
+            }
+            try (InputStream input = new BufferedInputStream(s3Client.getObject(request -> request
+                    .bucket(bucketName)
+                    .key(key)
+                    .range("bytes=0-11")))) {
+                if (!head.contentType().equals(detectContentType(input))) {
+                    throw new IllegalArgumentException("File content does not match " + head.contentType());
+                }
+            }
+            return head.contentType();
+        } catch (IllegalArgumentException e) {
+            delete(key);
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkSize(long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (size > maxSize) {
+            throw new IllegalArgumentException("File is larger than " + DataSize.ofBytes(maxSize).toMegabytes() + "MB");
+        }
+    }
+
+    private void checkType(String contentType) {
+        if (contentType == null || !allowedTypes.contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported file type");
+        }
+    }
+
+    private void uploadMultipart(String key, String contentType, InputStream input) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(request -> request
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)).uploadId();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            while (true) {
+                // Taken before the read, so at most `concurrency` part buffers exist at once
+                inFlight.acquire();
+                byte[] bytes;
+                try {
+                    bytes = readPart(input);
+                } catch (IOException | RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                if (bytes == null) {
+                    inFlight.release();
+                    break;
+                }
+                int partNumber = parts.size() + 1;
+                byte[] part = bytes;
+                CompletableFuture<CompletedPart> upload = CompletableFuture.supplyAsync(() -> {
+                    String eTag = s3Client.uploadPart(request -> request
+                                    .bucket(bucketName)
+                                    .key(key)
+                                    .uploadId(uploadId)
+                                    .partNumber(partNumber),
+                            RequestBody.fromBytes(part)).eTag();
+                    return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+                }, partUploader);
+                upload.whenComplete((result, error) -> inFlight.release());
+                parts.add(upload);
+                // Stop reading as soon as any part has failed
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+            }
+
+            List<CompletedPart> completed = parts.stream().map(CompletableFuture::join).toList();
+            s3Client.completeMultipartUpload(request -> request
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(completed)));
+        } catch (InterruptedException e) {
+            abort(key, uploadId, parts);
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted", e);
+        } catch (CompletionException e) {
+            abort(key, uploadId, parts);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } catch (IOException | RuntimeException e) {
+            abort(key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private void abort(String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(false));
+        s3Client.abortMultipartUpload(request -> request.bucket(bucketName).key(key).uploadId(uploadId));
+    }
+
+    public ResponseInputStream<GetObjectResponse> download(String key) {
+        return s3Client.getObject(request -> request.bucket(bucketName).key(key));
     }
 
-    public void uploadFile(String key, MultipartFile file) throws IOException {
+    public void putBytes(String key, byte[] bytes, String contentType) {
         s3Client.putObject(
                 PutObjectRequest.builder()
                         .bucket(bucketName)
                         .key(key)
+                        .contentType(contentType)
                         .build(),
-                RequestBody.fromBytes(file.getBytes())
+                RequestBody.fromBytes(bytes)
         );
     }
+
+    public void delete(String key) {
+        s3Client.deleteObject(request -> request.bucket(bucketName).key(key));
+    }
+
+    /**
+     * The URL stored on entities and shown to clients: through /api/media when {@code media.public-base-url}
+     * is set, so views hit the local cache, otherwise the object's S3 URL.
+     */
+    public String publicUrl(String key) {
+        return mediaBaseUrl.isEmpty() ? objectUrl(key) : mediaBaseUrl + "/api/media/" + key;
+    }
+
+    public String objectUrl(String key) {
+        return s3Client.utilities().getUrl(request -> request.bucket(bucketName).key(key)).toString();
+    }
+
+    // Null at end of stream; the last part may be short
+    private byte[] readPart(InputStream input) throws IOException {
+        byte[] buffer = new byte[partSize];
+        int read = input.readNBytes(buffer, 0, partSize);
+        if (read == 0) {
+            return null;
+        }
+        return read == partSize ? buffer : Arrays.copyOf(buffer, read);
+    }
+
+    // Recognizes the image formats we accept by their magic numbers; the stream is left at its start
+    private static String detectContentType(InputStream input) throws IOException {
+        input.mark(12);
+        byte[] head = input.readNBytes(12);
+        input.reset();
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (head.length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (head.length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        if (head.length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partUploader.shutdown();
+    }
 }
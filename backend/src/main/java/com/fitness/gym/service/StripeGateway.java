@@ -0,0 +1,185 @@
+package com.fitness.gym.service;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.checkout.SessionCreateParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * All outbound Stripe API calls. Uses one configured {@link StripeClient} instead of the global
+ * {@code Stripe.apiKey}. Calls run on a small bounded pool, so a slow Stripe holds those threads and not
+ * Tomcat's, and a full pool rejects at once with a 503. After repeated connection errors or 5xx responses
+ * the circuit opens and calls fail fast until a single trial call succeeds.
+ */
+@Component
+public class StripeGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(StripeGateway.class);
+
+    private final StripeClient client;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final int failureThreshold;
+    private final long openMs;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // Zero while the circuit is closed
+    private volatile long openUntil;
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    public StripeGateway(@Value("${stripe.secretKey}") String secretKey,
+                         @Value("${stripe.api-base:}") String apiBase,
+                         @Value("${stripe.connect-timeout-ms:2000}") int connectTimeoutMs,
+                         @Value("${stripe.read-timeout-ms:10000}") int readTimeoutMs,
+                         @Value("${stripe.max-network-retries:1}") int maxNetworkRetries,
+                         @Value("${stripe.max-concurrent-calls:16}") int maxConcurrentCalls,
+                         @Value("${stripe.queue:32}") int queueCapacity,
+                         @Value("${stripe.circuit.failure-threshold:5}") int failureThreshold,
+                         @Value("${stripe.circuit.open-ms:30000}") long openMs,
+                         MeterRegistry meterRegistry,
+                         WorkerThreads workerThreads) {
+        StripeClient.StripeClientBuilder builder = StripeClient.builder()
+                .setApiKey(secretKey)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(maxNetworkRetries);
+        // Point at stripe-mock or another local stand-in for load tests
+        if (!apiBase.isBlank()) {
+            builder.setApiBase(apiBase);
+        }
+        this.client = builder.build();
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.meterRegistry = meterRegistry;
+
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                workerThreads.io("stripe-client"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("stripe.rejected")
+                .description("Stripe calls refused locally because the pool was full or the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("stripe.circuit.open", this, gateway -> gateway.openUntil != 0 ? 1 : 0).register(meterRegistry);
+        Gauge.builder("stripe.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("stripe.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public CompletableFuture<Session> createCheckoutSession(SessionCreateParams params, RequestOptions options) {
+        return call("checkout.session.create", () -> client.checkout().sessions().create(params, options));
+    }
+
+    private <T> CompletableFuture<T> call(String operation, StripeCall<T> call) {
+        if (!allowRequest()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new StripeUnavailableException("Stripe circuit is open"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> execute(operation, call), executor);
+        } catch (RejectedExecutionException e) {
+            trialInFlight.set(false);
+            rejected.increment();
+            return CompletableFuture.failedFuture(new StripeUnavailableException("Too many concurrent Stripe calls"));
+        }
+    }
+
+    private <T> T execute(String operation, StripeCall<T> call) {
+        long startedAt = System.nanoTime();
+        String outcome = "success";
+        try {
+            T result = call.execute();
+            onSuccess();
+            return result;
+        } catch (StripeException e) {
+            if (isOutage(e)) {
+                outcome = "error";
+                onFailure();
+            } else {
+                // Card declines and invalid requests mean Stripe is up
+                outcome = "client_error";
+                onSuccess();
+            }
+            throw new CompletionException(e);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            onFailure();
+            throw e;
+        } finally {
+            Timer.builder("stripe.request")
+                    .description("Latency of outbound Stripe API calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean allowRequest() {
+        long until = openUntil;
+        if (until == 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() < until) {
+            return false;
+        }
+        // Half-open: let one call through to find out whether Stripe is back
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (openUntil != 0) {
+            log.info("Stripe circuit closed");
+        }
+        openUntil = 0;
+        trialInFlight.set(false);
+    }
+
+    private void onFailure() {
+        if (trialInFlight.get() || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            if (openUntil == 0) {
+                log.warn("Stripe circuit opened after {} consecutive failures", consecutiveFailures.get());
+            }
+            openUntil = System.currentTimeMillis() + openMs;
+            trialInFlight.set(false);
+        }
+    }
+
+    private static boolean isOutage(StripeException e) {
+        Integer status = e.getStatusCode();
+        return e instanceof ApiConnectionException || e instanceof RateLimitException || status == null || status >= 500;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
+}
@@ -3,76 +3,103 @@ package com.fitness.gym.service;
 import com.fitness.gym.dto.CartRequest;
 import com.fitness.gym.dto.ProductRequest;
 import com.fitness.gym.dto.StripeResponse;
-import com.stripe.Stripe;
+import com.fitness.gym.model.Order;
+import com.fitness.gym.model.OrderStatus;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.UserRepository;
+import com.fitness.gym.security.TokenHashing;
 import com.stripe.exception.StripeException;
-import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.checkout.SessionCreateParams;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @Service
 public class StripeService {
-    @Value("${stripe.secretKey}")
-    private String secretKey;
+    private final StripeGateway stripeGateway;
+    private final OrderService orderService;
+    private final SupplementPriceMap supplementPriceMap;
+    private final CheckoutRequestCache checkoutRequestCache;
+    private final UserRepository userRepository;
 
-    public StripeResponse checkoutProducts(ProductRequest product) {
-        Stripe.apiKey = secretKey;
-
-        SessionCreateParams.LineItem lineItem = SessionCreateParams.LineItem.builder()
-                .setPrice(product.getPriceId())
-                .setQuantity(product.getQuantity())
-                .build();
-
-        SessionCreateParams sessionParams = SessionCreateParams.builder()
-                .setMode(SessionCreateParams.Mode.PAYMENT)
-                .setSuccessUrl("http://localhost:8080/product/v1/success")
-                .setCancelUrl("http://localhost:8080/product/v1/cancel")
-                .addLineItem(lineItem)
-                .build();
+    public StripeService(StripeGateway stripeGateway, OrderService orderService, SupplementPriceMap supplementPriceMap,
+                         CheckoutRequestCache checkoutRequestCache, UserRepository userRepository) {
+        this.stripeGateway = stripeGateway;
+        this.orderService = orderService;
+        this.supplementPriceMap = supplementPriceMap;
+        this.checkoutRequestCache = checkoutRequestCache;
+        this.userRepository = userRepository;
+    }
 
-        Session session = null;
-        try {
-            session = Session.create(sessionParams);
+    /**
+     * Checks out a single product as a one-line cart, so it reserves stock and creates an order like any other
+     * checkout.
+     */
+    @QueryBudget(1)
+    public CompletableFuture<StripeResponse> checkoutProducts(ProductRequest product, String idempotencyKey) {
+        if (product == null) {
+            return failed("Cart is empty");
         }
-        catch (StripeException ex) {
-            System.out.println("Stripe exception: " + ex.getMessage());
-            return StripeResponse.builder()
-                    .status("Failed")
-                    .message("Failed to create payment session: " + ex.getMessage())
-                    .build();
+        return checkoutCart(new CartRequest(List.of(product)), idempotencyKey);
+    }
+
+    /**
+     * Creates a Stripe session for the cart. Requests carrying the same Idempotency-Key (or, for a signed-in
+     * user without one, the same cart) share a single session while the first is in flight and for a short
+     * window after it succeeds. The only read is the signed-in user's id; prices come from memory.
+     */
+    @QueryBudget(1)
+    public CompletableFuture<StripeResponse> checkoutCart(CartRequest cartRequest, String idempotencyKey) {
+        boolean hasKey = idempotencyKey != null && !idempotencyKey.isBlank();
+        Authentication authentication = currentAuthentication();
+        // Anonymous carts without a key can't be told apart, so they are never merged
+        if (!hasKey && authentication == null) {
+            return createCartSession(cartRequest, null);
         }
-        // Return successful response
-        return StripeResponse.builder()
-                .status("Success")
-                .message("Payment session is created successfully")
-                .sessionId(session.getId())
-                .sessionUrl(session.getUrl())
-                .build();
+        String fingerprint = fingerprint(cartRequest);
+        String scope = (authentication != null ? authentication.getName() : "anonymous") + ":"
+                + (hasKey ? idempotencyKey : fingerprint);
+        return checkoutRequestCache.execute(scope, fingerprint,
+                () -> createCartSession(cartRequest, hasKey ? TokenHashing.sha256(scope) : null));
     }
-    public StripeResponse checkoutCart(CartRequest cartRequest){
-        Stripe.apiKey = secretKey;
 
+    private CompletableFuture<StripeResponse> createCartSession(CartRequest cartRequest, String idempotencyKey) {
         if (cartRequest == null || cartRequest.getProducts() == null || cartRequest.getProducts().isEmpty()) {
-            return StripeResponse.builder().status("Failed").message("Cart is empty").build();
+            return failed("Cart is empty");
         }
 
         List<ProductRequest> products = cartRequest.getProducts();
 
         for (ProductRequest p : products) {
-            if (p.getPriceId() == null || p.getPriceId().isBlank()) {
-                return StripeResponse.builder().status("Failed").message("Missing price_id for one or more items").build();
+            if (p.getSupplementId() == null && (p.getPriceId() == null || p.getPriceId().isBlank())) {
+                return failed("Missing supplement_id for one or more items");
             }
             if (p.getQuantity() == null || p.getQuantity() <= 0) {
-                return StripeResponse.builder().status("Failed").message("Invalid quantity for one or more items").build();
+                return failed("Invalid quantity for one or more items");
             }
         }
 
-        List<SessionCreateParams.LineItem> lineItems = products.stream()
-                .map(p -> SessionCreateParams.LineItem.builder()
-                        .setPrice(p.getPriceId())
-                        .setQuantity(p.getQuantity())
+        // Price from our own catalog, then reserve, so a session is never opened for stock we can't deliver
+        List<SupplementPriceMap.Line> lines;
+        Order order;
+        try {
+            lines = supplementPriceMap.resolve(products);
+            order = orderService.reserve(currentUser(), lines);
+        } catch (RuntimeException ex) {
+            return failed(ex.getMessage());
+        }
+
+        List<SessionCreateParams.LineItem> lineItems = lines.stream()
+                .map(line -> SessionCreateParams.LineItem.builder()
+                        .setPrice(line.price().priceId())
+                        .setQuantity((long) line.quantity())
                         .build())
                 .toList();
 
@@ -80,23 +107,78 @@ public class StripeService {
                 .setMode(SessionCreateParams.Mode.PAYMENT)
                 .setSuccessUrl("http://localhost:5173/success")
                 .setCancelUrl("http://localhost:5173/cart")
+                .setClientReferenceId(order.getId().toString())
+                .putMetadata("order_id", order.getId().toString())
+                // Checkout closes when the reservation lapses
+                .setExpiresAt(order.getReservedUntil().getEpochSecond())
                 .addAllLineItem(lineItems)
                 .build();
 
-        try {
-            Session session = Session.create(sessionParams);
-            return StripeResponse.builder()
-                    .status("Success")
-                    .message("Payment session is created successfully")
-                    .sessionId(session.getId())
-                    .sessionUrl(session.getUrl())
-                    .build();
-        } catch (StripeException ex) {
+        // Scoped to the order so Stripe replays the session if this exact call is retried
+        RequestOptions requestOptions = idempotencyKey != null
+                ? RequestOptions.builder().setIdempotencyKey("checkout-" + idempotencyKey + "-" + order.getId()).build()
+                : RequestOptions.getDefault();
+
+        return stripeGateway.createCheckoutSession(sessionParams, requestOptions)
+                .handle((session, ex) -> {
+                    if (ex != null) {
+                        orderService.release(order.getId(), OrderStatus.CANCELLED);
+                        return sessionFailed(ex);
+                    }
+                    orderService.attachSession(order.getId(), session.getId());
+                    return StripeResponse.builder()
+                            .status("Success")
+                            .message("Payment session is created successfully")
+                            .sessionId(session.getId())
+                            .sessionUrl(session.getUrl())
+                            .orderId(order.getId())
+                            .build();
+                });
+    }
+
+    private static CompletableFuture<StripeResponse> failed(String message) {
+        return CompletableFuture.completedFuture(StripeResponse.builder().status("Failed").message(message).build());
+    }
+
+    // Stripe's own errors become a Failed response; local rejections propagate as a 503
+    private static StripeResponse sessionFailed(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof StripeException stripeException) {
             return StripeResponse.builder()
                     .status("Failed")
-                    .message("Failed to create payment session: " + ex.getMessage())
+                    .message("Failed to create payment session: " + stripeException.getMessage())
                     .build();
         }
+        throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+
+    private User currentUser() {
+        Authentication authentication = currentAuthentication();
+        // The order only needs the user's key, so a reference avoids loading the row
+        return authentication != null
+                ? userRepository.findIdByEmail(authentication.getName()).map(userRepository::getReferenceById).orElse(null)
+                : null;
+    }
+
+    private static Authentication currentAuthentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication;
+    }
+
+    // Order-independent digest of the cart lines
+    private static String fingerprint(CartRequest cartRequest) {
+        if (cartRequest == null || cartRequest.getProducts() == null) {
+            return TokenHashing.sha256("");
+        }
+        String lines = cartRequest.getProducts().stream()
+                .map(p -> p.getSupplementId() + "|" + p.getPriceId() + "|" + p.getQuantity() + "|"
+                        + (p.getPrice() != null ? p.getPrice().stripTrailingZeros().toPlainString() : null))
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        return TokenHashing.sha256(lines);
     }
 
 }
@@ -0,0 +1,11 @@
+package com.fitness.gym.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Payments are temporarily unavailable, please retry shortly")
+public class StripeUnavailableException extends RuntimeException {
+    public StripeUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,217 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.model.Order;
+import com.fitness.gym.model.OrderStatus;
+import com.fitness.gym.model.StripeWebhookEvent;
+import com.fitness.gym.repository.OrderRepository;
+import com.fitness.gym.repository.StripeWebhookEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stripe webhooks go through a database inbox. {@link #receive} only verifies the signature and stores the
+ * raw event, so Stripe gets its 200 quickly; a poller hands due events to a small worker pool that applies
+ * them to orders, retrying failures with exponential backoff.
+ */
+@Service
+public class StripeWebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(StripeWebhookService.class);
+
+    private final StripeWebhookEventRepository eventRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+
+    @Value("${stripe.webhookSecret:}")
+    private String webhookSecret;
+
+    @Value("${stripe.webhook.batch-size:50}")
+    private int batchSize;
+
+    @Value("${stripe.webhook.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${stripe.webhook.backoff-ms:5000}")
+    private long backoffMs;
+
+    @Value("${stripe.webhook.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    // How long a claimed event is hidden from other pollers while it is being processed
+    @Value("${stripe.webhook.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${stripe.webhook.retention-ms:604800000}")
+    private long retentionMs;
+
+    public StripeWebhookService(StripeWebhookEventRepository eventRepository,
+                                OrderRepository orderRepository,
+                                OrderService orderService,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${stripe.webhook.workers:4}") int workerCount,
+                                WorkerThreads workerThreads) {
+        this.eventRepository = eventRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.workers = Executors.newFixedThreadPool(workerCount, workerThreads.io("stripe-webhook"));
+    }
+
+    /**
+     * Verifies the Stripe-Signature header and stores the event. Returns false for a redelivery of an event
+     * that is already in the inbox.
+     */
+    @Transactional
+    public boolean receive(String payload, String signature) throws SignatureVerificationException {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            throw new IllegalStateException("stripe.webhookSecret is not configured");
+        }
+        Event event = Webhook.constructEvent(payload, signature, webhookSecret);
+        return eventRepository.insertIfAbsent(event.getId(), event.getType(), payload, Instant.now()) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.poll-ms:1000}")
+    public void processDue() {
+        List<String> due;
+        do {
+            Instant now = Instant.now();
+            due = eventRepository.findIdsByStatusAndNextAttemptAtBefore(StripeWebhookEvent.Status.PENDING, now, Limit.of(batchSize));
+            CompletableFuture<?>[] batch = due.stream()
+                    .filter(id -> claim(id, now))
+                    .map(id -> CompletableFuture.runAsync(() -> process(id), workers))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(batch).join();
+        } while (due.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.purge-ms:3600000}")
+    public void purgeProcessed() {
+        transactionTemplate.executeWithoutResult(status ->
+                eventRepository.deleteByStatusAndProcessedAtBefore(StripeWebhookEvent.Status.PROCESSED,
+                        Instant.now().minusMillis(retentionMs)));
+    }
+
+    private boolean claim(String id, Instant now) {
+        Integer claimed = transactionTemplate.execute(status -> eventRepository.claim(id, StripeWebhookEvent.Status.PENDING, now, now.plusMillis(leaseMs)));
+        return claimed != null && claimed > 0;
+    }
+
+    private void process(String id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                StripeWebhookEvent event = eventRepository.findById(id).orElseThrow();
+                apply(event);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setStatus(StripeWebhookEvent.Status.PROCESSED);
+                event.setProcessedAt(Instant.now());
+                event.setLastError(null);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Stripe event {} failed", id, e);
+            transactionTemplate.executeWithoutResult(status -> eventRepository.findById(id).ifPresent(event -> {
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setLastError(truncate(String.valueOf(e.getMessage())));
+                if (attempts >= maxAttempts) {
+                    event.setStatus(StripeWebhookEvent.Status.FAILED);
+                } else {
+                    event.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+                }
+            }));
+        }
+    }
+
+    private void apply(StripeWebhookEvent event) {
+        JsonNode session;
+        try {
+            session = objectMapper.readTree(event.getPayload()).path("data").path("object");
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable event payload", e);
+        }
+        switch (event.getType()) {
+            case "checkout.session.completed" -> {
+                // Delayed payment methods complete the session first and confirm with a later event
+                String paymentStatus = session.path("payment_status").asText();
+                if ("paid".equals(paymentStatus) || "no_payment_required".equals(paymentStatus)) {
+                    markPaid(session);
+                }
+            }
+            case "checkout.session.async_payment_succeeded" -> markPaid(session);
+            case "checkout.session.expired" -> release(session, OrderStatus.EXPIRED);
+            case "checkout.session.async_payment_failed" -> release(session, OrderStatus.CANCELLED);
+            default -> log.debug("Ignoring Stripe event {} of type {}", event.getId(), event.getType());
+        }
+    }
+
+    private void markPaid(JsonNode session) {
+        Long orderId = orderId(session);
+        if (orderId != null) {
+            orderService.markPaid(orderId);
+        }
+    }
+
+    private void release(JsonNode session, OrderStatus status) {
+        Long orderId = orderId(session);
+        if (orderId != null) {
+            orderService.release(orderId, status);
+        }
+    }
+
+    /**
+     * Every checkout creates an order and stamps its id into the session metadata; the session id lookup
+     * covers sessions created before that. A session with neither was not opened by this app (a payment link
+     * or a dashboard session, say), so retrying can't help and the event is skipped.
+     */
+    private Long orderId(JsonNode session) {
+        String orderId = session.path("metadata").path("order_id").asText(null);
+        if (orderId != null) {
+            return Long.valueOf(orderId);
+        }
+        String sessionId = session.path("id").asText();
+        Optional<Long> stored = orderRepository.findByStripeSessionId(sessionId).map(Order::getId);
+        if (stored.isEmpty()) {
+            log.warn("No order for Stripe checkout session {}, ignoring the event", sessionId);
+        }
+        return stored.orElse(null);
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = backoffMs << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(delay > 0 ? Math.min(delay, maxBackoffMs) : maxBackoffMs);
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
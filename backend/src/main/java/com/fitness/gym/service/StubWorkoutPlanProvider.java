@@ -0,0 +1,107 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.WorkoutRoutine;
+import com.fitness.gym.dto.WorkoutRoutine.WorkoutDay;
+import com.fitness.gym.dto.WorkoutRoutine.WorkoutExercise;
+import com.fitness.gym.dto.WorkoutRoutine.WorkoutPlan;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds plans from a fixed exercise table without calling out, so generation works offline and in local
+ * development. The same preferences always give the same plan.
+ */
+@Component
+@ConditionalOnProperty(name = "workouts.provider", havingValue = "stub", matchIfMissing = true)
+public class StubWorkoutPlanProvider implements WorkoutPlanProvider {
+
+    private static final List<Exercise> EXERCISES = List.of(
+            new Exercise("Push-ups", "upper body", "bodyweight"),
+            new Exercise("Dumbbell Bench Press", "upper body", "dumbbells"),
+            new Exercise("Barbell Overhead Press", "upper body", "barbell"),
+            new Exercise("Pull-ups", "upper body", "pull-up bar"),
+            new Exercise("Dumbbell Rows", "upper body", "dumbbells"),
+            new Exercise("Bodyweight Squats", "lower body", "bodyweight"),
+            new Exercise("Walking Lunges", "lower body", "bodyweight"),
+            new Exercise("Goblet Squats", "lower body", "kettlebells"),
+            new Exercise("Romanian Deadlifts", "lower body", "barbell"),
+            new Exercise("Bulgarian Split Squats", "lower body", "bench"),
+            new Exercise("Plank", "core", "bodyweight"),
+            new Exercise("Hanging Knee Raises", "core", "pull-up bar"),
+            new Exercise("Russian Twists", "core", "bodyweight"),
+            new Exercise("Burpees", "cardio", "bodyweight"),
+            new Exercise("Kettlebell Swings", "cardio", "kettlebells"),
+            new Exercise("Mountain Climbers", "cardio", "bodyweight"),
+            new Exercise("Barbell Back Squat", "strength", "barbell"),
+            new Exercise("Barbell Deadlift", "strength", "barbell"),
+            new Exercise("Barbell Bench Press", "strength", "bench"),
+            new Exercise("Dumbbell Curls", "hypertrophy", "dumbbells"),
+            new Exercise("Incline Dumbbell Press", "hypertrophy", "bench"),
+            new Exercise("Dumbbell Lateral Raises", "hypertrophy", "dumbbells"));
+
+    @Override
+    public String name() {
+        return "stub-v1";
+    }
+
+    @Override
+    public WorkoutRoutine generate(WorkoutPlanRequest request) {
+        List<Exercise> eligible = EXERCISES.stream()
+                .filter(exercise -> request.focusAreas().isEmpty() || request.focusAreas().contains(exercise.focusArea()))
+                .filter(exercise -> exercise.equipment().equals("bodyweight") || request.equipment().contains(exercise.equipment()))
+                .toList();
+        if (eligible.isEmpty()) {
+            eligible = EXERCISES.stream().filter(exercise -> exercise.equipment().equals("bodyweight")).toList();
+        }
+
+        int sets = switch (request.experienceLevel()) {
+            case "beginner" -> 2;
+            case "advanced" -> 4;
+            default -> 3;
+        };
+        String reps = switch (request.goal()) {
+            case "strength" -> "5";
+            case "muscle gain" -> "8-12";
+            case "fat loss", "endurance" -> "12-15";
+            default -> "10";
+        };
+        int perDay = Math.min(eligible.size(), sets + 2);
+
+        List<WorkoutDay> days = new ArrayList<>();
+        int session = 0;
+        for (int day = 0; day < 7; day++) {
+            // Spreads the training days over the week instead of bunching them at the start
+            if ((day * request.frequency()) % 7 >= request.frequency()) {
+                days.add(new WorkoutDay(day + 1, List.of(new WorkoutExercise("Rest", 0, "", "Rest or light activity such as walking or stretching"))));
+                continue;
+            }
+            List<WorkoutExercise> exercises = new ArrayList<>();
+            for (int i = 0; i < perDay; i++) {
+                Exercise exercise = eligible.get((session * perDay + i) % eligible.size());
+                exercises.add(new WorkoutExercise(exercise.name(), sets, reps, "Rest 60-90 seconds between sets"));
+            }
+            days.add(new WorkoutDay(day + 1, exercises));
+            session++;
+        }
+
+        WorkoutPlan plan = new WorkoutPlan(
+                capitalize(request.goal()) + " Plan",
+                "A " + request.frequency() + "-day " + request.experienceLevel() + " week, repeated for " + request.duration() + ".",
+                "1 week",
+                days,
+                List.of("Warm up for 5-10 minutes before each session",
+                        "Add weight or reps once every set feels comfortable",
+                        "Sleep and protein intake matter as much as the training"));
+        return new WorkoutRoutine(plan);
+    }
+
+    private static String capitalize(String text) {
+        return text.isEmpty() ? text : Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private record Exercise(String name, String focusArea, String equipment) {
+    }
+}
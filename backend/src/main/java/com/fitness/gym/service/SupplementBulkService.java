@@ -0,0 +1,424 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.dto.BulkImportResult;
+import com.fitness.gym.model.Supplement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streaming bulk import/export for the supplement catalog. Imports go straight to JDBC batches because the
+ * IDENTITY key on supplements stops Hibernate from batching inserts; exports stream from a MySQL cursor.
+ * <p>
+ * An imported stockQuantity is the on-hand count. stock_quantity holds what is still sellable, so units held
+ * by PENDING checkouts are subtracted on the way in; releasing them later then restores the on-hand count
+ * instead of overshooting it.
+ */
+@Service
+public class SupplementBulkService {
+
+    // Field names match the JSON shape of Supplement so NDJSON and CSV feeds share one vocabulary
+    private static final List<String> COLUMNS = List.of("id", "name", "description", "price", "imageUrl", "category",
+            "brand", "stockQuantity", "usageInstructions", "benefits", "price_id", "isAvailable");
+
+    // Null-safe image comparison; an empty url counts as no image
+    private static final String SAME_IMAGE = "COALESCE(image_url, '') = COALESCE(VALUES(image_url), '')";
+
+    private static final String UPSERT_SQL = "INSERT INTO supplements (id, name, description, price, image_url, category, "
+            + "brand, stock_quantity, usage_instructions, benefits, price_id, is_available) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), price = VALUES(price), "
+            // Resized variants belong to the old image; these run before image_url is overwritten. CASE and
+            // COALESCE rather than IF(a <=> b) so the statement also runs on H2 in the test suite
+            + "image_thumb_url = CASE WHEN " + SAME_IMAGE + " THEN image_thumb_url END, "
+            + "image_card_url = CASE WHEN " + SAME_IMAGE + " THEN image_card_url END, "
+            + "image_url = VALUES(image_url), category = VALUES(category), brand = VALUES(brand), "
+            + "stock_quantity = VALUES(stock_quantity), usage_instructions = VALUES(usage_instructions), "
+            + "benefits = VALUES(benefits), price_id = VALUES(price_id), is_available = VALUES(is_available)";
+
+    // Row locks on the batch's existing supplements keep checkouts from reserving between the read and the upsert
+    private static final String LOCK_SQL = "SELECT id FROM supplements WHERE id IN (%s) FOR UPDATE";
+
+    private static final String RESERVED_SQL = "SELECT p.supplement_id, SUM(p.quantity_purchase) FROM purchase p "
+            + "JOIN orders o ON o.id = p.order_id WHERE o.status = 'PENDING' AND p.supplement_id IN (%s) "
+            + "GROUP BY p.supplement_id";
+
+    private static final String EXPORT_SQL = "SELECT id, name, description, price, image_url, category, brand, "
+            + "stock_quantity, usage_instructions, benefits, price_id, is_available FROM supplements ORDER BY id";
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SupplementCatalog supplementCatalog;
+
+    @Autowired
+    private SupplementSearchIndex supplementSearchIndex;
+
+    @Autowired
+    private SupplementPriceMap supplementPriceMap;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int batchSize;
+
+    public BulkImportResult importNdjson(InputStream input) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.setProcessed(result.getProcessed() + 1);
+                try {
+                    accept(objectMapper.readValue(line, Supplement.class), lineNumber, batch, result);
+                } catch (IOException | IllegalArgumentException e) {
+                    reject(result, lineNumber, e.getMessage());
+                }
+            }
+        }
+        flush(batch, result);
+        afterImport();
+        return result;
+    }
+
+    public BulkImportResult importCsv(InputStream input) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        try (CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                return result;
+            }
+            for (String column : header) {
+                if (!COLUMNS.contains(column)) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + column);
+                }
+            }
+
+            List<String> values;
+            while ((values = reader.next()) != null) {
+                long lineNumber = reader.recordStartLine();
+                result.setProcessed(result.getProcessed() + 1);
+                try {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 0; i < header.size() && i < values.size(); i++) {
+                        if (!values.get(i).isEmpty()) {
+                            row.put(header.get(i), values.get(i));
+                        }
+                    }
+                    accept(objectMapper.convertValue(row, Supplement.class), lineNumber, batch, result);
+                } catch (IllegalArgumentException e) {
+                    reject(result, lineNumber, e.getMessage());
+                }
+            }
+        }
+        flush(batch, result);
+        afterImport();
+        return result;
+    }
+
+    public void exportNdjson(OutputStream output) {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        streamRows(row -> {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        });
+        flushWriter(writer);
+    }
+
+    public void exportCsv(OutputStream output) {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        try {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        streamRows(row -> {
+            List<String> cells = new ArrayList<>(COLUMNS.size());
+            for (String column : COLUMNS) {
+                cells.add(csvCell(row.get(column)));
+            }
+            writer.write(String.join(",", cells));
+            writer.write("\r\n");
+        });
+        flushWriter(writer);
+    }
+
+    private void accept(Supplement supplement, long lineNumber, List<PendingRow> batch, BulkImportResult result) {
+        String problem = validate(supplement);
+        if (problem != null) {
+            reject(result, lineNumber, problem);
+            return;
+        }
+        batch.add(new PendingRow(lineNumber, supplement));
+        if (batch.size() >= batchSize) {
+            flush(batch, result);
+        }
+    }
+
+    private static String validate(Supplement supplement) {
+        if (supplement.getName() == null || supplement.getName().isBlank()) {
+            return "name is required";
+        }
+        if (supplement.getPrice() == null || supplement.getPrice().signum() < 0) {
+            return "price must be zero or more";
+        }
+        if (supplement.getCategory() == null || supplement.getCategory().isBlank()) {
+            return "category is required";
+        }
+        if (supplement.getDescription() != null && supplement.getDescription().length() > 1000) {
+            return "description is longer than 1000 characters";
+        }
+        return null;
+    }
+
+    private void flush(List<PendingRow> batch, BulkImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Integer> reserved = lockAndReadReserved(batch);
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, row) -> bind(ps, row.supplement(), reserved));
+                result.setImported(result.getImported() + batch.size());
+            } catch (DataAccessException batchFailure) {
+                // Replay row by row so the failure is reported against the line that caused it
+                for (PendingRow row : batch) {
+                    try {
+                        jdbcTemplate.update(UPSERT_SQL, ps -> bind(ps, row.supplement(), reserved));
+                        result.setImported(result.getImported() + 1);
+                    } catch (DataAccessException e) {
+                        reject(result, row.line(), e.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        });
+        batch.clear();
+    }
+
+    // Units held by PENDING orders for the batch's existing supplements; new rows have none
+    private Map<Long, Integer> lockAndReadReserved(List<PendingRow> batch) {
+        List<Long> ids = batch.stream()
+                .map(row -> row.supplement().getId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Integer> reserved = new HashMap<>();
+        if (ids.isEmpty()) {
+            return reserved;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        jdbcTemplate.queryForList(String.format(LOCK_SQL, placeholders), Long.class, args);
+        jdbcTemplate.query(String.format(RESERVED_SQL, placeholders),
+                (ResultSet rs) -> {
+                    reserved.put(rs.getLong(1), rs.getInt(2));
+                }, args);
+        return reserved;
+    }
+
+    private static void bind(PreparedStatement ps, Supplement s, Map<Long, Integer> reserved) throws SQLException {
+        if (s.getId() != null) {
+            ps.setLong(1, s.getId());
+        } else {
+            ps.setNull(1, Types.BIGINT);
+        }
+        ps.setString(2, s.getName());
+        ps.setString(3, s.getDescription());
+        ps.setBigDecimal(4, s.getPrice());
+        ps.setString(5, s.getImageUrl());
+        ps.setString(6, s.getCategory());
+        ps.setString(7, s.getBrand());
+        if (s.getStockQuantity() != null) {
+            int held = s.getId() != null ? reserved.getOrDefault(s.getId(), 0) : 0;
+            ps.setInt(8, Math.max(s.getStockQuantity() - held, 0));
+        } else {
+            ps.setNull(8, Types.INTEGER);
+        }
+        ps.setString(9, s.getUsageInstructions());
+        ps.setString(10, s.getBenefits());
+        ps.setString(11, s.getPriceId());
+        ps.setBoolean(12, s.getIsAvailable() == null || s.getIsAvailable());
+    }
+
+    private static void reject(BulkImportResult result, long lineNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BulkImportResult.RowError(lineNumber, message));
+        }
+    }
+
+    private void afterImport() {
+        supplementCatalog.rebuild();
+        supplementSearchIndex.rebuild();
+        supplementPriceMap.rebuild();
+    }
+
+    private void streamRows(RowWriter rowWriter) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Tells MySQL Connector/J to stream rows instead of buffering the whole result set
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (ResultSet rs) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", rs.getLong("id"));
+            row.put("name", rs.getString("name"));
+            row.put("description", rs.getString("description"));
+            row.put("price", rs.getBigDecimal("price"));
+            row.put("imageUrl", rs.getString("image_url"));
+            row.put("category", rs.getString("category"));
+            row.put("brand", rs.getString("brand"));
+            row.put("stockQuantity", rs.getObject("stock_quantity", Integer.class));
+            row.put("usageInstructions", rs.getString("usage_instructions"));
+            row.put("benefits", rs.getString("benefits"));
+            row.put("price_id", rs.getString("price_id"));
+            row.put("isAvailable", rs.getBoolean("is_available"));
+            try {
+                rowWriter.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void flushWriter(Writer writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private record PendingRow(long line, Supplement supplement) {
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Map<String, Object> row) throws IOException;
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    private static final class CsvReader implements AutoCloseable {
+        private final BufferedReader reader;
+        private long line = 1;
+        private long recordStartLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            while (c == '\r' || c == '\n') {
+                if (c == '\n') {
+                    line++;
+                }
+                c = reader.read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordStartLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        long recordStartLine() {
+            return recordStartLine;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.dto.SupplementSummary;
+import com.fitness.gym.repository.SupplementRepository;
+import com.fitness.gym.security.TokenHashing;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pre-serialized snapshot of the available supplements served by GET /api/supplements. It is rebuilt after
+ * every write through {@link SupplementService} and on a slow timer to pick up changes made elsewhere, so
+ * reads never touch JPA or Jackson.
+ */
+@Component
+public class SupplementCatalog {
+
+    private final SupplementRepository supplementRepository;
+    private final ObjectMapper objectMapper;
+
+    // Held across the query, so a ReentrantLock rather than synchronized, which would pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public SupplementCatalog(SupplementRepository supplementRepository, ObjectMapper objectMapper) {
+        this.supplementRepository = supplementRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    @QueryBudget(1)
+    @Scheduled(fixedDelayString = "${catalog.refresh-ms:60000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @QueryBudget(1)
+    public Snapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            List<SupplementSummary> supplements = supplementRepository.findSummaryByIsAvailableTrueOrderByIdAsc();
+            byte[] json = objectMapper.writeValueAsBytes(supplements);
+            String etag = "\"" + TokenHashing.sha256(json) + "\"";
+            snapshot = new Snapshot(json, etag);
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize supplement catalog", e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public record Snapshot(byte[] json, String etag) {
+    }
+}
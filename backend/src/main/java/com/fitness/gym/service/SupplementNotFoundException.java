@@ -0,0 +1,11 @@
+package com.fitness.gym.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Supplement not found")
+public class SupplementNotFoundException extends RuntimeException {
+    public SupplementNotFoundException(Long id) {
+        super("Supplement not found: " + id);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.ProductRequest;
+import com.fitness.gym.dto.SupplementPrice;
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.SupplementRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory price list used to price carts at checkout. The browser only says which supplement and how
+ * many; the Stripe price id and unit price always come from here. Kept current by {@link SupplementService}
+ * writes and the bulk import, with a slow timer to pick up changes made elsewhere.
+ */
+@Component
+public class SupplementPriceMap {
+
+    private final SupplementRepository supplementRepository;
+
+    // Serializes writers so a rebuild cannot overwrite a concurrent put/remove with older data
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Prices prices = new Prices(Map.of(), Map.of());
+
+    public SupplementPriceMap(SupplementRepository supplementRepository) {
+        this.supplementRepository = supplementRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.refresh-ms:60000}", initialDelayString = "${catalog.refresh-ms:60000}")
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            Map<Long, Price> byId = new HashMap<>();
+            for (SupplementPrice row : supplementRepository.findPriceBy()) {
+                byId.put(row.getId(), new Price(row.getId(), row.getName(), row.getPriceId(), row.getPrice(),
+                        Boolean.TRUE.equals(row.getIsAvailable())));
+            }
+            prices = Prices.of(byId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void put(Supplement supplement) {
+        writeLock.lock();
+        try {
+            Map<Long, Price> byId = new HashMap<>(prices.byId());
+            byId.put(supplement.getId(), new Price(supplement.getId(), supplement.getName(), supplement.getPriceId(),
+                    supplement.getPrice(), Boolean.TRUE.equals(supplement.getIsAvailable())));
+            prices = Prices.of(byId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            Map<Long, Price> byId = new HashMap<>(prices.byId());
+            byId.remove(id);
+            prices = Prices.of(byId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Prices a cart. Lines for the same supplement are merged and the result is ordered by supplement id.
+     * Lines may name a supplement by id or, for older clients, by price_id; a price_id or price sent
+     * alongside a supplement id must match ours.
+     */
+    public List<Line> resolve(List<ProductRequest> products) {
+        Prices current = prices;
+        Map<Long, Line> lines = new TreeMap<>();
+        for (ProductRequest product : products) {
+            Price price = product.getSupplementId() != null
+                    ? current.byId().get(product.getSupplementId())
+                    : current.byPriceId().get(product.getPriceId());
+            if (price == null || !price.available() || price.priceId() == null || price.priceId().isBlank()) {
+                throw new RuntimeException("Item is not available: "
+                        + (product.getSupplementId() != null ? product.getSupplementId() : product.getPriceId()));
+            }
+            if (product.getPriceId() != null && !product.getPriceId().equals(price.priceId())) {
+                throw new RuntimeException("price_id does not match " + price.name());
+            }
+            if (product.getPrice() != null && product.getPrice().compareTo(price.amount()) != 0) {
+                throw new RuntimeException("The price of " + price.name() + " has changed");
+            }
+            int quantity = Math.toIntExact(product.getQuantity());
+            lines.merge(price.supplementId(), new Line(price, quantity),
+                    (existing, added) -> new Line(price, existing.quantity() + added.quantity()));
+        }
+        return new ArrayList<>(lines.values());
+    }
+
+    public record Price(Long supplementId, String name, String priceId, BigDecimal amount, boolean available) {
+    }
+
+    public record Line(Price price, int quantity) {
+        public BigDecimal total() {
+            return price.amount().multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    private record Prices(Map<Long, Price> byId, Map<String, Price> byPriceId) {
+        static Prices of(Map<Long, Price> byId) {
+            Map<String, Price> byPriceId = new HashMap<>();
+            byId.values().stream()
+                    .filter(price -> price.priceId() != null)
+                    .forEach(price -> byPriceId.put(price.priceId(), price));
+            return new Prices(Map.copyOf(byId), Map.copyOf(byPriceId));
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.SupplementRecommendation;
+import com.fitness.gym.dto.SupplementSummary;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.PaidPurchase;
+import com.fitness.gym.repository.PurchaseRepository;
+import com.fitness.gym.repository.RecommendationProfile;
+import com.fitness.gym.repository.SupplementRepository;
+import com.fitness.gym.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Supplement recommendations served from memory. A background job folds newly paid purchases and changed
+ * profiles into running counts: distinct buyers per supplement, per supplement pair and per profile segment
+ * (goal, BMI band, age band). After each pass it publishes a snapshot of primitive arrays holding every
+ * supplement's closest co-purchased neighbours (cosine over buyers) and a smoothed purchase rate per segment,
+ * so a request only adds up a few short rows and never queries the database.
+ */
+@Component
+public class SupplementRecommendations {
+
+    private static final Logger log = LoggerFactory.getLogger(SupplementRecommendations.class);
+
+    private static final int GOALS = 4;
+    private static final int UNKNOWN_GOAL = 3;
+    private static final int BANDS = 5;
+    private static final int UNKNOWN_BAND = 4;
+    private static final int SEGMENTS = GOALS * BANDS * BANDS;
+
+    // Categories that suit each goal before there are purchases to learn from; counts as one buyer
+    private static final List<Set<String>> GOAL_CATEGORIES = List.of(
+            Set.of("Protein", "Energy", "Health"),
+            Set.of("Protein", "Performance", "Amino Acids", "Recovery"),
+            Set.of("Health", "Recovery", "Protein"),
+            Set.of());
+
+    private final PurchaseRepository purchaseRepository;
+    private final UserRepository userRepository;
+    private final SupplementRepository supplementRepository;
+    private final int neighbourLimit;
+    private final float smoothing;
+    private final float profileWeight;
+    private final long settleMs;
+    private final int batchSize;
+    private final int maxResults;
+
+    // Read by requests without locking; members are replaced, never mutated
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Running counts, only touched by refresh() under the lock. Supplements get a dense index on first
+    // sight that never changes, so published member item arrays stay valid across snapshots.
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Map<Long, Integer> indexOf = new HashMap<>();
+    private final Map<Long, Tally> tallies = new HashMap<>();
+    private long[] ids = new long[64];
+    private int[] buyers = new int[64];
+    private CountRow[] pairs = new CountRow[64];
+    private int[][] segmentBuyers = new int[SEGMENTS][64];
+    private final int[] segmentMembers = new int[SEGMENTS];
+    private int size;
+    private Instant profileWatermark;
+    private Instant purchaseWatermark = Instant.EPOCH;
+    private long purchaseWatermarkId;
+
+    public SupplementRecommendations(PurchaseRepository purchaseRepository,
+                                     UserRepository userRepository,
+                                     SupplementRepository supplementRepository,
+                                     @Value("${recommendations.neighbours:50}") int neighbourLimit,
+                                     @Value("${recommendations.smoothing:10}") float smoothing,
+                                     @Value("${recommendations.profile-weight:1.0}") float profileWeight,
+                                     @Value("${recommendations.settle-ms:30000}") long settleMs,
+                                     @Value("${recommendations.batch-size:5000}") int batchSize,
+                                     @Value("${recommendations.max-results:20}") int maxResults) {
+        this.purchaseRepository = purchaseRepository;
+        this.userRepository = userRepository;
+        this.supplementRepository = supplementRepository;
+        this.neighbourLimit = neighbourLimit;
+        this.smoothing = smoothing;
+        this.profileWeight = profileWeight;
+        this.settleMs = settleMs;
+        this.batchSize = batchSize;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Top picks for a member, leaving out what they already bought. Profile fields passed in take the place
+     * of the stored ones, so visitors who are not signed in can still get picks for their goal and build.
+     */
+    public List<SupplementRecommendation> recommend(String email, String fitnessGoal, Double weight, Double height,
+                                                    Integer age, int limit) {
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxResults);
+        }
+        Snapshot current = snapshot;
+        Member member = email != null ? members.get(email) : null;
+        int[] items = member != null ? member.items() : new int[0];
+        int segment;
+        if (fitnessGoal != null || weight != null || height != null || age != null || member == null) {
+            segment = segmentOf(fitnessGoal, weight, height, age);
+        } else {
+            segment = member.segment();
+        }
+
+        int n = current.ids().length;
+        float[] profileScores = current.segmentScores()[segment];
+        float[] scores = new float[n];
+        for (int j = 0; j < n; j++) {
+            scores[j] = profileWeight * profileScores[j];
+        }
+        float[] related = new float[n];
+        for (int i : items) {
+            if (i >= n) {
+                continue;
+            }
+            for (int k = current.neighbourStart()[i]; k < current.neighbourStart()[i + 1]; k++) {
+                int j = current.neighbours()[k];
+                scores[j] += current.similarity()[k];
+                related[j] += current.similarity()[k];
+            }
+        }
+        for (int i : items) {
+            if (i < n) {
+                scores[i] = Float.NEGATIVE_INFINITY;
+            }
+        }
+
+        int[] top = topIndexes(scores, current.supplements(), limit);
+        List<SupplementRecommendation> recommendations = new ArrayList<>(top.length);
+        for (int j : top) {
+            if (related[j] > profileWeight * profileScores[j]) {
+                recommendations.add(new SupplementRecommendation(current.supplements()[j], "bought-together",
+                        current.ids()[strongestAnchor(current, items, j)]));
+            } else {
+                recommendations.add(new SupplementRecommendation(current.supplements()[j], "profile", null));
+            }
+        }
+        return recommendations;
+    }
+
+    /**
+     * Moves a member to their new segment straight away after a profile edit on this instance. The counts
+     * follow on the next refresh, which sees the changed updated_at.
+     */
+    public void profileChanged(User user) {
+        int segment = segmentOf(user.getFitnessGoal(), user.getWeight(), user.getHeight(), user.getAge());
+        members.compute(user.getEmail(), (email, member) ->
+                new Member(segment, member != null ? member.items() : new int[0]));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${recommendations.refresh-ms:60000}", initialDelayString = "${recommendations.refresh-ms:60000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+            int profiles = applyProfiles();
+            int purchases = applyPurchases();
+            snapshot = buildSnapshot();
+            log.debug("Recommendations refreshed with {} profiles and {} purchases in {} ms",
+                    profiles, purchases, System.currentTimeMillis() - startedAt);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private int applyProfiles() {
+        // updated_at is stamped before the transaction commits too, but re-applying a profile is harmless,
+        // so the settle time is re-read behind the watermark instead of holding recent rows back
+        List<RecommendationProfile> changed = profileWatermark == null
+                ? userRepository.findAllRecommendationProfiles()
+                : userRepository.findRecommendationProfilesUpdatedSince(profileWatermark.minusMillis(settleMs));
+        Instant newest = profileWatermark != null ? profileWatermark : Instant.EPOCH;
+        for (RecommendationProfile profile : changed) {
+            Tally tally = tallyOf(profile.getId());
+            tally.email = profile.getEmail();
+            moveSegment(tally, segmentOf(profile.getFitnessGoal(), profile.getWeight(), profile.getHeight(), profile.getAge()));
+            members.put(tally.email, new Member(tally.segment, tally.items));
+            if (profile.getUpdatedAt() != null && profile.getUpdatedAt().isAfter(newest)) {
+                newest = profile.getUpdatedAt();
+            }
+        }
+        profileWatermark = newest;
+        return changed.size();
+    }
+
+    private int applyPurchases() {
+        // Purchase dates are stamped before the transaction commits, so rows younger than the settle time
+        // are left for the next run rather than risk an earlier-dated row committing behind the watermark
+        Instant until = Instant.now().minusMillis(settleMs);
+        int applied = 0;
+        List<PaidPurchase> batch;
+        do {
+            batch = purchaseRepository.findPaidAfter(purchaseWatermark, purchaseWatermarkId, until,
+                    PageRequest.of(0, batchSize));
+            for (PaidPurchase purchase : batch) {
+                addPurchase(tallyOf(purchase.getUserId()), indexFor(purchase.getSupplementId()));
+                purchaseWatermark = purchase.getPurchaseDate();
+                purchaseWatermarkId = purchase.getId();
+            }
+            applied += batch.size();
+        } while (batch.size() == batchSize);
+        return applied;
+    }
+
+    private void addPurchase(Tally tally, int item) {
+        int at = Arrays.binarySearch(tally.items, item);
+        if (at >= 0) {
+            return;
+        }
+        for (int other : tally.items) {
+            pairs[other].increment(item);
+            pairs[item].increment(other);
+        }
+        buyers[item]++;
+        segmentBuyers[tally.segment][item]++;
+
+        int insertAt = -at - 1;
+        int[] items = new int[tally.items.length + 1];
+        System.arraycopy(tally.items, 0, items, 0, insertAt);
+        items[insertAt] = item;
+        System.arraycopy(tally.items, insertAt, items, insertAt + 1, tally.items.length - insertAt);
+        tally.items = items;
+        if (tally.email != null) {
+            members.put(tally.email, new Member(tally.segment, items));
+        }
+    }
+
+    private void moveSegment(Tally tally, int segment) {
+        if (tally.segment == segment) {
+            return;
+        }
+        segmentMembers[tally.segment]--;
+        segmentMembers[segment]++;
+        for (int item : tally.items) {
+            segmentBuyers[tally.segment][item]--;
+            segmentBuyers[segment][item]++;
+        }
+        tally.segment = segment;
+    }
+
+    private Tally tallyOf(Long userId) {
+        return tallies.computeIfAbsent(userId, id -> {
+            Tally tally = new Tally();
+            segmentMembers[tally.segment]++;
+            return tally;
+        });
+    }
+
+    private int indexFor(Long supplementId) {
+        Integer existing = indexOf.get(supplementId);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            buyers = Arrays.copyOf(buyers, capacity);
+            pairs = Arrays.copyOf(pairs, capacity);
+            for (int s = 0; s < SEGMENTS; s++) {
+                segmentBuyers[s] = Arrays.copyOf(segmentBuyers[s], capacity);
+            }
+        }
+        int index = size++;
+        ids[index] = supplementId;
+        pairs[index] = new CountRow();
+        indexOf.put(supplementId, index);
+        return index;
+    }
+
+    private Snapshot buildSnapshot() {
+        List<SupplementSummary> available = supplementRepository.findSummaryByIsAvailableTrueOrderByIdAsc();
+        for (SupplementSummary supplement : available) {
+            indexFor(supplement.getId());
+        }
+        int n = size;
+        SupplementSummary[] supplements = new SupplementSummary[n];
+        for (SupplementSummary supplement : available) {
+            supplements[indexOf.get(supplement.getId())] = supplement;
+        }
+
+        // Each row keeps its closest neighbours; a (similarity, index) pair packed into a long sorts by
+        // similarity because the float bits of a positive value order like the value
+        int[] neighbourStart = new int[n + 1];
+        int[] neighbours = new int[(int) Math.min((long) n * neighbourLimit, countPairs(n))];
+        float[] similarity = new float[neighbours.length];
+        int filled = 0;
+        for (int i = 0; i < n; i++) {
+            neighbourStart[i] = filled;
+            CountRow row = pairs[i];
+            long[] ranked = new long[row.size];
+            int candidates = 0;
+            for (int k = 0; k < row.size; k++) {
+                int j = row.keys[k];
+                if (supplements[j] == null) {
+                    continue;
+                }
+                float cosine = (float) (row.counts[k] / Math.sqrt((double) buyers[i] * buyers[j]));
+                ranked[candidates++] = ((long) Float.floatToIntBits(cosine) << 32) | j;
+            }
+            Arrays.sort(ranked, 0, candidates);
+            for (int k = candidates - 1; k >= Math.max(0, candidates - neighbourLimit); k--) {
+                neighbours[filled] = (int) ranked[k];
+                similarity[filled] = Float.intBitsToFloat((int) (ranked[k] >>> 32));
+                filled++;
+            }
+        }
+        neighbourStart[n] = filled;
+
+        // Purchase rates shrink toward the goal's rate when a segment has few members, and the goal's toward
+        // the overall rate, so sparse segments still rank sensibly
+        int totalMembers = tallies.size();
+        float[][] goalRates = new float[GOALS][n];
+        for (int goal = 0; goal < GOALS; goal++) {
+            int goalMembers = 0;
+            int[] goalBuyers = new int[n];
+            for (int s = goal * BANDS * BANDS; s < (goal + 1) * BANDS * BANDS; s++) {
+                goalMembers += segmentMembers[s];
+                for (int j = 0; j < n; j++) {
+                    goalBuyers[j] += segmentBuyers[s][j];
+                }
+            }
+            for (int j = 0; j < n; j++) {
+                int prior = supplements[j] != null && GOAL_CATEGORIES.get(goal).contains(supplements[j].getCategory()) ? 1 : 0;
+                float overall = (float) (buyers[j] + prior) / (totalMembers + 1);
+                goalRates[goal][j] = (goalBuyers[j] + smoothing * overall) / (goalMembers + smoothing);
+            }
+        }
+        float[][] segmentScores = new float[SEGMENTS][n];
+        for (int s = 0; s < SEGMENTS; s++) {
+            float[] goalRate = goalRates[s / (BANDS * BANDS)];
+            for (int j = 0; j < n; j++) {
+                segmentScores[s][j] = (segmentBuyers[s][j] + smoothing * goalRate[j]) / (segmentMembers[s] + smoothing);
+            }
+        }
+
+        return new Snapshot(Arrays.copyOf(ids, n), supplements, neighbourStart,
+                Arrays.copyOf(neighbours, filled), Arrays.copyOf(similarity, filled), segmentScores);
+    }
+
+    private int countPairs(int n) {
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            total += pairs[i].size;
+        }
+        return total;
+    }
+
+    // Small selection by insertion; limit is at most a few dozen
+    private static int[] topIndexes(float[] scores, SupplementSummary[] supplements, int limit) {
+        int[] top = new int[limit];
+        int count = 0;
+        for (int j = 0; j < scores.length; j++) {
+            if (supplements[j] == null || scores[j] == Float.NEGATIVE_INFINITY) {
+                continue;
+            }
+            if (count == limit && scores[j] <= scores[top[count - 1]]) {
+                continue;
+            }
+            int at = count < limit ? count++ : count - 1;
+            while (at > 0 && scores[top[at - 1]] < scores[j]) {
+                top[at] = top[at - 1];
+                at--;
+            }
+            top[at] = j;
+        }
+        return Arrays.copyOf(top, count);
+    }
+
+    private static int strongestAnchor(Snapshot current, int[] items, int j) {
+        int best = -1;
+        float bestSimilarity = 0;
+        for (int i : items) {
+            if (i >= current.ids().length) {
+                continue;
+            }
+            for (int k = current.neighbourStart()[i]; k < current.neighbourStart()[i + 1]; k++) {
+                if (current.neighbours()[k] == j && current.similarity()[k] > bestSimilarity) {
+                    best = i;
+                    bestSimilarity = current.similarity()[k];
+                }
+            }
+        }
+        return best;
+    }
+
+    static int segmentOf(String fitnessGoal, Double weight, Double height, Integer age) {
+        return (goalOf(fitnessGoal) * BANDS + bmiBand(weight, height)) * BANDS + ageBand(age);
+    }
+
+    private static int goalOf(String fitnessGoal) {
+        if (fitnessGoal == null) {
+            return UNKNOWN_GOAL;
+        }
+        String goal = fitnessGoal.toLowerCase(Locale.ROOT);
+        if (goal.contains("loss") || goal.contains("lose") || goal.contains("fat")) {
+            return 0;
+        }
+        if (goal.contains("gain") || goal.contains("muscle") || goal.contains("bulk") || goal.contains("strength")) {
+            return 1;
+        }
+        if (goal.contains("maint")) {
+            return 2;
+        }
+        return UNKNOWN_GOAL;
+    }
+
+    // Weight in kg and height in cm, as the profile form takes them
+    private static int bmiBand(Double weight, Double height) {
+        if (weight == null || height == null || weight <= 0 || height <= 0) {
+            return UNKNOWN_BAND;
+        }
+        double bmi = weight / Math.pow(height / 100, 2);
+        return bmi < 18.5 ? 0 : bmi < 25 ? 1 : bmi < 30 ? 2 : 3;
+    }
+
+    private static int ageBand(Integer age) {
+        if (age == null || age <= 0) {
+            return UNKNOWN_BAND;
+        }
+        return age < 25 ? 0 : age < 35 ? 1 : age < 50 ? 2 : 3;
+    }
+
+    /** What a request needs about a member: their segment and the sorted indexes of what they bought. */
+    private record Member(int segment, int[] items) {
+    }
+
+    private static final class Tally {
+        String email;
+        int segment = segmentOf(null, null, null, null);
+        int[] items = new int[0];
+    }
+
+    /** Sparse row of pair counts, kept sorted by supplement index. */
+    private static final class CountRow {
+        int[] keys = new int[4];
+        int[] counts = new int[4];
+        int size;
+
+        void increment(int key) {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            if (at >= 0) {
+                counts[at]++;
+                return;
+            }
+            at = -at - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(counts, at, counts, at + 1, size - at);
+            keys[at] = key;
+            counts[at] = 1;
+            size++;
+        }
+    }
+
+    /**
+     * Published state. Neighbours of supplement i are neighbours[neighbourStart[i] .. neighbourStart[i + 1]),
+     * strongest first; supplements[i] is null when the supplement is no longer available.
+     */
+    private record Snapshot(long[] ids, SupplementSummary[] supplements, int[] neighbourStart, int[] neighbours,
+                            float[] similarity, float[][] segmentScores) {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new SupplementSummary[0], new int[1], new int[0],
+                new float[0], new float[SEGMENTS][0]);
+    }
+}
@@ -0,0 +1,206 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.SupplementSearchDocument;
+import com.fitness.gym.dto.SupplementSearchResult;
+import com.fitness.gym.dto.SupplementSummary;
+import com.fitness.gym.repository.SupplementRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the available supplements. Built once at startup and then kept current by
+ * {@link SupplementService} writes, so search never scans the supplements table. Documents are read-only
+ * projections; the index never holds entities.
+ */
+@Component
+public class SupplementSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float BENEFITS_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.5f;
+    // Typeahead matches on a partial last word rank below whole-word matches
+    private static final float PREFIX_PENALTY = 0.5f;
+
+    private final SupplementRepository supplementRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sorted so prefix queries are a sub-map range
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByDocument = new HashMap<>();
+    private final Map<Long, SupplementSearchDocument> documents = new HashMap<>();
+
+    public SupplementSearchIndex(SupplementRepository supplementRepository) {
+        this.supplementRepository = supplementRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<SupplementSearchDocument> supplements = supplementRepository.findSearchDocumentByIsAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByDocument.clear();
+            documents.clear();
+            supplements.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads one supplement after a write and replaces its document, or drops it if it is gone or no
+     * longer available.
+     */
+    public void index(Long id) {
+        Optional<SupplementSearchDocument> supplement = supplementRepository.findSearchDocumentById(id);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            if (supplement.isPresent() && Boolean.TRUE.equals(supplement.get().getIsAvailable())) {
+                add(supplement.get());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Every query word must match; the last word also matches as a prefix so the endpoint can drive a
+     * typeahead. Facet counts cover all matches before the category/brand filters are applied.
+     */
+    public SupplementSearchResult search(String query, String category, String brand, int limit) {
+        List<String> words = tokenize(query);
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (int i = 0; i < words.size(); i++) {
+                boolean last = i == words.size() - 1;
+                Map<Long, Float> wordScores = matches(words.get(i), last);
+                scores = scores == null ? wordScores : intersect(scores, wordScores);
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (scores == null) {
+                scores = Map.of();
+            }
+
+            Map<String, Long> categoryFacets = new TreeMap<>();
+            Map<String, Long> brandFacets = new TreeMap<>();
+            List<Map.Entry<Long, Float>> hits = new ArrayList<>();
+            for (Map.Entry<Long, Float> hit : scores.entrySet()) {
+                SupplementSearchDocument supplement = documents.get(hit.getKey());
+                categoryFacets.merge(String.valueOf(supplement.getCategory()), 1L, Long::sum);
+                brandFacets.merge(String.valueOf(supplement.getBrand()), 1L, Long::sum);
+                if ((category == null || category.equalsIgnoreCase(supplement.getCategory()))
+                        && (brand == null || brand.equalsIgnoreCase(supplement.getBrand()))) {
+                    hits.add(hit);
+                }
+            }
+
+            hits.sort(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            // Serialized as the catalog's card shape; the text fields are @JsonIgnore
+            List<SupplementSummary> items = hits.stream()
+                    .limit(limit)
+                    .<SupplementSummary>map(hit -> documents.get(hit.getKey()))
+                    .toList();
+            return new SupplementSearchResult(items, hits.size(), categoryFacets, brandFacets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> matches(String word, boolean allowPrefix) {
+        Map<Long, Float> result = new HashMap<>(postings.getOrDefault(word, Map.of()));
+        if (allowPrefix) {
+            for (Map.Entry<String, Map<Long, Float>> term : postings.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                term.getValue().forEach((id, weight) -> result.merge(id, weight * PREFIX_PENALTY, Math::max));
+            }
+        }
+        return result;
+    }
+
+    private static Map<Long, Float> intersect(Map<Long, Float> left, Map<Long, Float> right) {
+        Map<Long, Float> result = new HashMap<>();
+        left.forEach((id, score) -> {
+            Float other = right.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+
+    private void add(SupplementSearchDocument supplement) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, supplement.getName(), NAME_WEIGHT);
+        addField(weights, supplement.getBrand(), BRAND_WEIGHT);
+        addField(weights, supplement.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, supplement.getBenefits(), BENEFITS_WEIGHT);
+        addField(weights, supplement.getDescription(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(supplement.getId(), weight));
+        termsByDocument.put(supplement.getId(), new HashSet<>(weights.keySet()));
+        documents.put(supplement.getId(), supplement);
+    }
+
+    private void removeDocument(Long id) {
+        Set<String> terms = termsByDocument.remove(id);
+        documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, fieldWeight, Float::sum);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -1,55 +1,235 @@
 package com.fitness.gym.service;
 
+import com.fitness.gym.dto.SupplementBatch;
+import com.fitness.gym.dto.SupplementDetail;
+import com.fitness.gym.dto.SupplementPage;
+import com.fitness.gym.dto.SupplementSearchResult;
+import com.fitness.gym.dto.SupplementSummary;
 import com.fitness.gym.model.Supplement;
 import com.fitness.gym.repository.SupplementRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class SupplementService {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "price", "name");
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_IDS = 100;
+
     @Autowired
     private SupplementRepository supplementRepository;
 
-    public List<Supplement> getAllSupplements() {
-        return supplementRepository.findByIsAvailableTrue();
+    @Autowired
+    private SupplementCatalog supplementCatalog;
+
+    @Autowired
+    private SupplementSearchIndex supplementSearchIndex;
+
+    @Autowired
+    private SupplementPriceMap supplementPriceMap;
+
+    /**
+     * Keyset-paged catalog read. The cursor encodes the sort key and id of the last row returned, so a deep
+     * page costs the same index range scan as the first one.
+     */
+    public SupplementPage<SupplementSummary> getSupplementPage(String category, String sort, String direction,
+                                                        String cursor, Integer size) {
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort);
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Sort order = Sort.by(Sort.Direction.fromString(direction), sort);
+        ScrollPosition position = cursor == null || cursor.isBlank() ? ScrollPosition.keyset() : decodeCursor(cursor);
+        Window<SupplementSummary> window = category == null || category.isBlank()
+                ? supplementRepository.findByIsAvailableTrue(position, order, Limit.of(pageSize))
+                : supplementRepository.findByCategoryAndIsAvailableTrue(category, position, order, Limit.of(pageSize));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encodeCursor((KeysetScrollPosition) window.positionAt(window.size() - 1))
+                : null;
+        return new SupplementPage<>(window.getContent(), nextCursor);
+    }
+
+    private static String encodeCursor(KeysetScrollPosition position) {
+        StringBuilder raw = new StringBuilder();
+        position.getKeys().forEach((field, value) -> {
+            if (raw.length() > 0) {
+                raw.append('\n');
+            }
+            raw.append(field).append('=').append(value);
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ScrollPosition decodeCursor(String cursor) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String line : raw.split("\n")) {
+                String[] parts = line.split("=", 2);
+                switch (parts[0]) {
+                    case "id" -> keys.put("id", Long.valueOf(parts[1]));
+                    case "price" -> keys.put("price", new BigDecimal(parts[1]));
+                    case "name" -> keys.put("name", parts[1]);
+                    default -> throw new IllegalArgumentException("Unknown cursor field: " + parts[0]);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public List<SupplementSummary> getSupplementsByCategory(String category) {
+        return supplementRepository.findSummaryByCategory(category);
     }
 
-    public List<Supplement> getSupplementsByCategory(String category) {
-        return supplementRepository.findByCategory(category);
+    public SupplementDetail getSupplementDetail(Long id) {
+        return supplementRepository.findDetailById(id)
+                .orElseThrow(() -> new SupplementNotFoundException(id));
+    }
+
+    /**
+     * Details for several supplements in one IN query, for carts and other lists of known ids. Repeated ids
+     * are answered once; ids with no row, or whose supplement was deleted (isAvailable=false), are listed in
+     * notFound rather than failing the request.
+     */
+    public SupplementBatch getSupplementDetails(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.isEmpty() || requested.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_IDS + " ids are required");
+        }
+        Map<Long, SupplementDetail> found = supplementRepository.findDetailByIdInAndIsAvailableTrue(requested).stream()
+                .collect(Collectors.toMap(SupplementDetail::id, Function.identity()));
+
+        List<SupplementDetail> supplements = new ArrayList<>(found.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            SupplementDetail detail = found.get(id);
+            if (detail != null) {
+                supplements.add(detail);
+            } else {
+                notFound.add(id);
+            }
+        }
+        return new SupplementBatch(supplements, notFound);
     }
 
     public Supplement getSupplementById(Long id) {
         return supplementRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Supplement not found"));
+                .orElseThrow(() -> new SupplementNotFoundException(id));
     }
 
     public Supplement createSupplement(Supplement supplement) {
-        return supplementRepository.save(supplement);
+        Supplement saved = supplementRepository.save(supplement);
+        supplementCatalog.rebuild();
+        supplementSearchIndex.index(saved.getId());
+        supplementPriceMap.put(saved);
+        return saved;
     }
 
+    /**
+     * Updates everything but stock. Checkouts reserve stock with conditional updates while this runs, so a
+     * quantity sent here would overwrite them; stock changes go through {@link #adjustStock} instead.
+     */
     public Supplement updateSupplement(Long id, Supplement supplementDetails) {
         Supplement supplement = getSupplementById(id);
         
         supplement.setName(supplementDetails.getName());
         supplement.setDescription(supplementDetails.getDescription());
         supplement.setPrice(supplementDetails.getPrice());
+        if (!Objects.equals(supplement.getImageUrl(), supplementDetails.getImageUrl())) {
+            // The resized variants belong to the old image
+            supplement.setImageThumbUrl(null);
+            supplement.setImageCardUrl(null);
+        }
         supplement.setImageUrl(supplementDetails.getImageUrl());
         supplement.setCategory(supplementDetails.getCategory());
         supplement.setBrand(supplementDetails.getBrand());
-        supplement.setStockQuantity(supplementDetails.getStockQuantity());
         supplement.setUsageInstructions(supplementDetails.getUsageInstructions());
         supplement.setBenefits(supplementDetails.getBenefits());
         supplement.setIsAvailable(supplementDetails.getIsAvailable());
 
-        return supplementRepository.save(supplement);
+        Supplement saved = supplementRepository.save(supplement);
+        supplementCatalog.rebuild();
+        supplementSearchIndex.index(saved.getId());
+        supplementPriceMap.put(saved);
+        return saved;
+    }
+
+    /**
+     * Adds or removes units relative to the current row, so units reserved by checkouts are never overwritten.
+     * Stock that isn't tracked (null) can't be adjusted and stock can't go below zero.
+     */
+    public Supplement adjustStock(Long id, int delta) {
+        if (supplementRepository.adjustStock(id, delta) == 0) {
+            Supplement supplement = getSupplementById(id);
+            throw new IllegalArgumentException(supplement.getStockQuantity() == null
+                    ? "Stock is not tracked for supplement " + id
+                    : "Only " + supplement.getStockQuantity() + " units are in stock");
+        }
+        return getSupplementById(id);
+    }
+
+    /**
+     * Points the supplement at a new image and its resized variants. When {@code expectedImageUrl} is given
+     * the change is skipped if the image was replaced in the meantime, so late variants of an older upload
+     * can't win; the check and the write are one conditional UPDATE.
+     */
+    public boolean updateImages(Long id, String expectedImageUrl, String imageUrl, String cardUrl, String thumbUrl) {
+        if (supplementRepository.updateImages(id, expectedImageUrl, imageUrl, cardUrl, thumbUrl) == 0) {
+            if (expectedImageUrl == null) {
+                throw new SupplementNotFoundException(id);
+            }
+            return false;
+        }
+        supplementCatalog.rebuild();
+        supplementSearchIndex.index(id);
+        return true;
     }
 
     public void deleteSupplement(Long id) {
         Supplement supplement = getSupplementById(id);
         supplement.setIsAvailable(false);
         supplementRepository.save(supplement);
+        supplementCatalog.rebuild();
+        supplementSearchIndex.remove(id);
+        supplementPriceMap.remove(id);
+    }
+
+    public SupplementSearchResult search(String query, String category, String brand, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        int maxResults = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (maxResults < 1 || maxResults > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return supplementSearchIndex.search(query, category, brand, maxResults);
     }
 }
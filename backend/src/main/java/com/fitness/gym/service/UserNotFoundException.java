@@ -0,0 +1,11 @@
+package com.fitness.gym.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "User not found")
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(String email) {
+        super("User not found: " + email);
+    }
+}
@@ -0,0 +1,29 @@
+package com.fitness.gym.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for our own I/O-bound executors. With {@code spring.threads.virtual.enabled} they hand out
+ * virtual threads, like Tomcat's request threads in that mode; the executors keep their sizes and queues, so
+ * limits such as the Stripe bulkhead still hold. CPU-bound pools (image variants, password hashing) keep
+ * platform threads either way.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public ThreadFactory io(String name) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        return Thread.ofPlatform().name(name + "-", 1).daemon().factory();
+    }
+}
@@ -0,0 +1,11 @@
+package com.fitness.gym.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Workout generation is temporarily unavailable, please retry shortly")
+public class WorkoutGenerationUnavailableException extends RuntimeException {
+    public WorkoutGenerationUnavailableException(String message) {
+        super(message);
+    }
+}
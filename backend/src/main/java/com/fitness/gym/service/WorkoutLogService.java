@@ -0,0 +1,514 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.WorkoutLog;
+import com.fitness.gym.dto.WorkoutLogResult;
+import com.fitness.gym.dto.WorkoutProgressPoint;
+import com.fitness.gym.model.WorkoutExerciseBest;
+import com.fitness.gym.model.WorkoutRollup;
+import com.fitness.gym.repository.UserRepository;
+import com.fitness.gym.repository.WorkoutExerciseBestRepository;
+import com.fitness.gym.repository.WorkoutRollupRepository;
+import com.fitness.gym.repository.WorkoutSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workout logging. Uploads are validated on the request thread and queued; a single flusher takes everything
+ * queued at once and writes it in one transaction of JDBC batches, so under load many uploads share one
+ * commit. Each upload's future completes after that commit, so nothing acknowledged is held only in memory.
+ * The same transaction adds the new sessions to the day and week rollups that progress charts read.
+ */
+@Service
+public class WorkoutLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkoutLogService.class);
+
+    // Epley loses accuracy quickly past about a dozen reps, so longer sets don't count towards the estimate
+    private static final int MAX_REPS_FOR_E1RM = 12;
+    private static final BigDecimal MAX_LOAD_KG = new BigDecimal("2000");
+
+    private static final String INSERT_SESSION_SQL = "INSERT INTO workout_sessions "
+            + "(id, user_id, name, started_at, ended_at, performed_on, notes, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SET_SQL = "INSERT INTO workout_sets "
+            + "(session_id, exercise_index, set_index, exercise, reps, load_kg) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_ROLLUP_SQL = "INSERT INTO workout_rollups "
+            + "(user_id, exercise, period, period_start, sessions, sets, reps, volume, max_load, best_e1rm, prs) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE sessions = sessions + VALUES(sessions), sets = sets + VALUES(sets), "
+            + "reps = reps + VALUES(reps), volume = volume + VALUES(volume), "
+            + "max_load = GREATEST(max_load, VALUES(max_load)), best_e1rm = GREATEST(best_e1rm, VALUES(best_e1rm)), "
+            + "prs = prs + VALUES(prs)";
+
+    // achieved_on is assigned first, while best_e1rm still holds the old value
+    private static final String UPSERT_BEST_SQL = "INSERT INTO workout_exercise_bests (user_id, exercise, best_e1rm, achieved_on) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE achieved_on = CASE WHEN VALUES(best_e1rm) > best_e1rm THEN VALUES(achieved_on) ELSE achieved_on END, "
+            + "best_e1rm = GREATEST(best_e1rm, VALUES(best_e1rm))";
+
+    private static final Comparator<RollupKey> ROLLUP_ORDER = Comparator.comparing(RollupKey::userId)
+            .thenComparing(RollupKey::exercise)
+            .thenComparing(RollupKey::period)
+            .thenComparing(RollupKey::periodStart);
+
+    private final UserRepository userRepository;
+    private final WorkoutSessionRepository sessionRepository;
+    private final WorkoutRollupRepository rollupRepository;
+    private final WorkoutExerciseBestRepository bestRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSetsPerUpload;
+    private final int maxSetsPerFlush;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService flusher;
+    private final Counter flushes;
+    private final Counter sessionsLogged;
+    private volatile boolean running = true;
+
+    public WorkoutLogService(UserRepository userRepository,
+                             WorkoutSessionRepository sessionRepository,
+                             WorkoutRollupRepository rollupRepository,
+                             WorkoutExerciseBestRepository bestRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${workouts.log.max-sets-per-upload:2000}") int maxSetsPerUpload,
+                             @Value("${workouts.log.max-sets-per-flush:5000}") int maxSetsPerFlush,
+                             @Value("${workouts.log.queue:1000}") int queueCapacity,
+                             WorkerThreads workerThreads,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.sessionRepository = sessionRepository;
+        this.rollupRepository = rollupRepository;
+        this.bestRepository = bestRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxSetsPerUpload = maxSetsPerUpload;
+        this.maxSetsPerFlush = maxSetsPerFlush;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushes = Counter.builder("workouts.log.flushes")
+                .description("Transactions written by the workout log flusher")
+                .register(meterRegistry);
+        this.sessionsLogged = Counter.builder("workouts.log.sessions").register(meterRegistry);
+        this.flusher = Executors.newSingleThreadExecutor(workerThreads.io("workout-log-flusher"));
+        this.flusher.execute(this::runFlusher);
+    }
+
+    public CompletableFuture<WorkoutLogResult> log(String email, WorkoutLog workoutLog) {
+        List<Session> sessions = validate(workoutLog);
+        Long userId = userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException(email));
+        Pending pending = new Pending(userId, sessions, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new WorkoutLogUnavailableException("Too many workout logs are waiting to be written");
+        }
+        return pending.result();
+    }
+
+    public List<WorkoutProgressPoint> progress(String email, String exercise, String period, LocalDate from, LocalDate to) {
+        String periodCode = switch (period.toLowerCase(Locale.ROOT)) {
+            case "day" -> WorkoutRollup.DAY;
+            case "week" -> WorkoutRollup.WEEK;
+            default -> throw new IllegalArgumentException("period must be day or week");
+        };
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : periodCode.equals(WorkoutRollup.DAY) ? end.minusDays(30) : end.minusWeeks(12);
+        if (periodCode.equals(WorkoutRollup.WEEK)) {
+            start = weekOf(start);
+        }
+        long span = periodCode.equals(WorkoutRollup.DAY) ? ChronoUnit.DAYS.between(start, end) : ChronoUnit.WEEKS.between(start, end);
+        if (span < 0 || span > 520) {
+            throw new IllegalArgumentException("from must be before to and at most 520 periods earlier");
+        }
+        String exerciseKey = WorkoutRollup.ALL_EXERCISES.equals(exercise) ? exercise : normalizeExercise(exercise);
+        Long userId = userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException(email));
+        return rollupRepository.findByUserIdAndExerciseAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+                        userId, exerciseKey, periodCode, start, end).stream()
+                .map(rollup -> new WorkoutProgressPoint(rollup.getPeriodStart(), rollup.getSessions(), rollup.getSets(),
+                        rollup.getReps(), rollup.getVolume(), rollup.getMaxLoad(), rollup.getBestE1rm(), rollup.getPrs()))
+                .toList();
+    }
+
+    private List<Session> validate(WorkoutLog workoutLog) {
+        ZoneId zone;
+        try {
+            zone = workoutLog.timeZone() == null ? ZoneOffset.UTC : ZoneId.of(workoutLog.timeZone());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + workoutLog.timeZone());
+        }
+        if (workoutLog.sessions() == null) {
+            throw new IllegalArgumentException("sessions is required");
+        }
+
+        List<Session> sessions = new ArrayList<>();
+        int totalSets = 0;
+        for (WorkoutLog.LoggedSession logged : workoutLog.sessions()) {
+            String id;
+            try {
+                id = UUID.fromString(String.valueOf(logged.id())).toString();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Session id must be a UUID: " + logged.id());
+            }
+            if (logged.startedAt() == null) {
+                throw new IllegalArgumentException("startedAt is required for session " + id);
+            }
+            if (logged.endedAt() != null && logged.endedAt().isBefore(logged.startedAt())) {
+                throw new IllegalArgumentException("endedAt is before startedAt for session " + id);
+            }
+            if (logged.name() != null && logged.name().length() > 255) {
+                throw new IllegalArgumentException("name is longer than 255 characters for session " + id);
+            }
+            if (logged.notes() != null && logged.notes().length() > 1000) {
+                throw new IllegalArgumentException("notes are longer than 1000 characters for session " + id);
+            }
+
+            List<Exercise> exercises = new ArrayList<>();
+            for (WorkoutLog.LoggedExercise loggedExercise : logged.exercises() != null ? logged.exercises() : List.<WorkoutLog.LoggedExercise>of()) {
+                String name = normalizeExercise(loggedExercise.name());
+                List<Lift> lifts = new ArrayList<>();
+                for (WorkoutLog.LoggedSet set : loggedExercise.sets() != null ? loggedExercise.sets() : List.<WorkoutLog.LoggedSet>of()) {
+                    BigDecimal load = set.loadKg() != null ? set.loadKg().setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO.setScale(2);
+                    if (set.reps() < 1 || set.reps() > 1000) {
+                        throw new IllegalArgumentException("reps must be between 1 and 1000 for " + name);
+                    }
+                    if (load.signum() < 0 || load.compareTo(MAX_LOAD_KG) > 0) {
+                        throw new IllegalArgumentException("loadKg must be between 0 and " + MAX_LOAD_KG + " for " + name);
+                    }
+                    lifts.add(new Lift(set.reps(), load));
+                }
+                totalSets += lifts.size();
+                exercises.add(new Exercise(name, lifts));
+            }
+            if (totalSets > maxSetsPerUpload) {
+                throw new IllegalArgumentException("An upload can hold at most " + maxSetsPerUpload + " sets");
+            }
+            sessions.add(new Session(id, logged.name(), logged.startedAt(), logged.endedAt(),
+                    LocalDate.ofInstant(logged.startedAt(), zone), logged.notes(), exercises));
+        }
+        return sessions;
+    }
+
+    private static String normalizeExercise(String name) {
+        String normalized = name == null ? "" : name.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.length() > 100 || normalized.equals(WorkoutRollup.ALL_EXERCISES)) {
+            throw new IllegalArgumentException("Exercise names must be 1 to 100 characters");
+        }
+        return normalized;
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Shutting down; the loop ends once the queue is drained
+                continue;
+            }
+            // Whatever queued up during the previous flush goes into this one
+            int sets = batch.get(0).sets();
+            Pending next;
+            while (sets < maxSetsPerFlush && (next = queue.poll()) != null) {
+                batch.add(next);
+                sets += next.sets();
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            List<WorkoutLogResult> results = transactionTemplate.execute(status -> write(batch));
+            flushes.increment();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // Replay one upload at a time so only the one that caused the failure is refused; this also
+                // settles a retried session that raced its first attempt on another instance
+                for (Pending pending : batch) {
+                    flush(List.of(pending));
+                }
+                return;
+            }
+            log.warn("Could not write workout log for user {}", batch.get(0).userId(), e);
+            batch.get(0).result().completeExceptionally(new WorkoutLogUnavailableException(e.getMessage()));
+        }
+    }
+
+    private List<WorkoutLogResult> write(List<Pending> batch) {
+        Set<String> ids = new HashSet<>();
+        batch.forEach(pending -> pending.sessions().forEach(session -> ids.add(session.id())));
+        Set<String> seen = ids.isEmpty() ? new HashSet<>() : new HashSet<>(sessionRepository.findExistingIds(ids));
+
+        // Sessions not stored before and not repeated within this flush, oldest first for PR detection
+        List<Accepted> accepted = new ArrayList<>();
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            Outcome outcome = new Outcome();
+            outcomes.add(outcome);
+            for (Session session : pending.sessions()) {
+                if (seen.add(session.id())) {
+                    accepted.add(new Accepted(pending.userId(), session, outcome));
+                    outcome.accepted++;
+                } else {
+                    outcome.duplicates++;
+                }
+            }
+        }
+        accepted.sort(Comparator.comparing(entry -> entry.session().startedAt()));
+        if (!accepted.isEmpty()) {
+            insertSessions(accepted);
+            updateRollups(accepted);
+            sessionsLogged.increment(accepted.size());
+        }
+
+        List<WorkoutLogResult> results = new ArrayList<>(batch.size());
+        for (Outcome outcome : outcomes) {
+            results.add(new WorkoutLogResult(outcome.accepted, outcome.duplicates, List.copyOf(outcome.personalRecords)));
+        }
+        return results;
+    }
+
+    private void insertSessions(List<Accepted> accepted) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SESSION_SQL, accepted, accepted.size(), (ps, entry) -> {
+            Session session = entry.session();
+            ps.setString(1, session.id());
+            ps.setLong(2, entry.userId());
+            ps.setString(3, session.name());
+            ps.setTimestamp(4, Timestamp.from(session.startedAt()));
+            ps.setTimestamp(5, session.endedAt() != null ? Timestamp.from(session.endedAt()) : null);
+            ps.setDate(6, Date.valueOf(session.performedOn()));
+            ps.setString(7, session.notes());
+            ps.setTimestamp(8, now);
+        });
+
+        List<SetRow> sets = new ArrayList<>();
+        for (Accepted entry : accepted) {
+            List<Exercise> exercises = entry.session().exercises();
+            for (int e = 0; e < exercises.size(); e++) {
+                for (int s = 0; s < exercises.get(e).lifts().size(); s++) {
+                    sets.add(new SetRow(entry.session().id(), e, s, exercises.get(e).name(), exercises.get(e).lifts().get(s)));
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SET_SQL, sets, maxSetsPerFlush, (ps, row) -> {
+            ps.setString(1, row.sessionId());
+            ps.setInt(2, row.exerciseIndex());
+            ps.setInt(3, row.setIndex());
+            ps.setString(4, row.exercise());
+            ps.setInt(5, row.lift().reps());
+            ps.setBigDecimal(6, row.lift().loadKg());
+        });
+    }
+
+    private void updateRollups(List<Accepted> accepted) {
+        Set<Long> userIds = new HashSet<>();
+        Set<String> exercises = new HashSet<>();
+        accepted.forEach(entry -> {
+            userIds.add(entry.userId());
+            entry.session().exercises().forEach(exercise -> exercises.add(exercise.name()));
+        });
+        Map<BestKey, BigDecimal> bests = new HashMap<>();
+        for (WorkoutExerciseBest best : bestRepository.findByUserIdInAndExerciseIn(userIds, exercises)) {
+            bests.put(new BestKey(best.getUserId(), best.getExercise()), best.getBestE1rm());
+        }
+
+        // Sorted so concurrent flushes on other instances take the row locks in the same order
+        Map<RollupKey, Totals> rollups = new TreeMap<>(ROLLUP_ORDER);
+        Map<BestKey, NewBest> improved = new TreeMap<>(Comparator.comparing(BestKey::userId).thenComparing(BestKey::exercise));
+        for (Accepted entry : accepted) {
+            Session session = entry.session();
+            Totals sessionTotals = new Totals();
+            sessionTotals.sessions = 1;
+
+            Map<String, Totals> byExercise = new LinkedHashMap<>();
+            for (Exercise exercise : session.exercises()) {
+                Totals totals = byExercise.computeIfAbsent(exercise.name(), name -> new Totals());
+                totals.sessions = 1;
+                exercise.lifts().forEach(totals::add);
+            }
+            for (Map.Entry<String, Totals> exercise : byExercise.entrySet()) {
+                Totals totals = exercise.getValue();
+                BestKey bestKey = new BestKey(entry.userId(), exercise.getKey());
+                BigDecimal previous = bests.get(bestKey);
+                if (totals.bestE1rm.signum() > 0 && (previous == null || totals.bestE1rm.compareTo(previous) > 0)) {
+                    // The first time an exercise is logged sets the baseline rather than a PR
+                    if (previous != null) {
+                        totals.prs = 1;
+                        entry.outcome().personalRecords.add(exercise.getKey());
+                    }
+                    bests.put(bestKey, totals.bestE1rm);
+                    improved.put(bestKey, new NewBest(totals.bestE1rm, session.performedOn()));
+                }
+                addRollups(rollups, entry.userId(), exercise.getKey(), session.performedOn(), totals);
+                sessionTotals.merge(totals);
+            }
+            sessionTotals.sessions = 1;
+            addRollups(rollups, entry.userId(), WorkoutRollup.ALL_EXERCISES, session.performedOn(), sessionTotals);
+        }
+
+        List<Map.Entry<RollupKey, Totals>> rollupRows = new ArrayList<>(rollups.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP_SQL, rollupRows, rollupRows.size(), (ps, row) -> {
+            RollupKey key = row.getKey();
+            Totals totals = row.getValue();
+            ps.setLong(1, key.userId());
+            ps.setString(2, key.exercise());
+            ps.setString(3, key.period());
+            ps.setDate(4, Date.valueOf(key.periodStart()));
+            ps.setInt(5, totals.sessions);
+            ps.setInt(6, totals.sets);
+            ps.setInt(7, totals.reps);
+            ps.setBigDecimal(8, totals.volume);
+            ps.setBigDecimal(9, totals.maxLoad);
+            ps.setBigDecimal(10, totals.bestE1rm);
+            ps.setInt(11, totals.prs);
+        });
+
+        List<Map.Entry<BestKey, NewBest>> bestRows = new ArrayList<>(improved.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_BEST_SQL, bestRows, bestRows.size(), (ps, row) -> {
+            ps.setLong(1, row.getKey().userId());
+            ps.setString(2, row.getKey().exercise());
+            ps.setBigDecimal(3, row.getValue().e1rm());
+            ps.setDate(4, Date.valueOf(row.getValue().achievedOn()));
+        });
+    }
+
+    private static void addRollups(Map<RollupKey, Totals> rollups, Long userId, String exercise, LocalDate day, Totals totals) {
+        rollups.computeIfAbsent(new RollupKey(userId, exercise, WorkoutRollup.DAY, day), key -> new Totals()).merge(totals);
+        rollups.computeIfAbsent(new RollupKey(userId, exercise, WorkoutRollup.WEEK, weekOf(day)), key -> new Totals()).merge(totals);
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static BigDecimal estimatedOneRepMax(Lift lift) {
+        if (lift.reps() > MAX_REPS_FOR_E1RM) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        // Epley: load x (1 + reps / 30), which gives the load itself for a single
+        BigDecimal factor = lift.reps() == 1 ? BigDecimal.ONE
+                : BigDecimal.ONE.add(BigDecimal.valueOf(lift.reps()).divide(BigDecimal.valueOf(30), 6, RoundingMode.HALF_UP));
+        return lift.loadKg().multiply(factor).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.shutdownNow();
+        if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Workout log flusher did not finish within 30 seconds");
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new WorkoutLogUnavailableException("Shutting down"));
+        }
+    }
+
+    private record Session(String id, String name, Instant startedAt, Instant endedAt, LocalDate performedOn,
+                           String notes, List<Exercise> exercises) {
+    }
+
+    private record Exercise(String name, List<Lift> lifts) {
+    }
+
+    private record Lift(int reps, BigDecimal loadKg) {
+    }
+
+    private record Pending(Long userId, List<Session> sessions, CompletableFuture<WorkoutLogResult> result) {
+        int sets() {
+            return sessions.stream().mapToInt(session -> session.exercises().stream().mapToInt(e -> e.lifts().size()).sum()).sum();
+        }
+    }
+
+    private record Accepted(Long userId, Session session, Outcome outcome) {
+    }
+
+    private record SetRow(String sessionId, int exerciseIndex, int setIndex, String exercise, Lift lift) {
+    }
+
+    private record RollupKey(Long userId, String exercise, String period, LocalDate periodStart) {
+    }
+
+    private record BestKey(Long userId, String exercise) {
+    }
+
+    private record NewBest(BigDecimal e1rm, LocalDate achievedOn) {
+    }
+
+    private static final class Outcome {
+        int accepted;
+        int duplicates;
+        final List<String> personalRecords = new ArrayList<>();
+    }
+
+    private static final class Totals {
+        int sessions;
+        int sets;
+        int reps;
+        BigDecimal volume = BigDecimal.ZERO.setScale(2);
+        BigDecimal maxLoad = BigDecimal.ZERO.setScale(2);
+        BigDecimal bestE1rm = BigDecimal.ZERO.setScale(2);
+        int prs;
+
+        void add(Lift lift) {
+            sets++;
+            reps += lift.reps();
+            volume = volume.add(lift.loadKg().multiply(BigDecimal.valueOf(lift.reps())));
+            maxLoad = maxLoad.max(lift.loadKg());
+            bestE1rm = bestE1rm.max(estimatedOneRepMax(lift));
+        }
+
+        void merge(Totals other) {
+            sessions += other.sessions;
+            sets += other.sets;
+            reps += other.reps;
+            volume = volume.add(other.volume);
+            maxLoad = maxLoad.max(other.maxLoad);
+            bestE1rm = bestE1rm.max(other.bestE1rm);
+            prs += other.prs;
+        }
+    }
+}
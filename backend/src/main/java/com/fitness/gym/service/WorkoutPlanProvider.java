@@ -0,0 +1,18 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.WorkoutRoutine;
+
+/**
+ * Produces a workout plan for canonical preferences. Selected with {@code workouts.provider}; calls are slow
+ * and may cost money, so {@link WorkoutPlanService} caches and coalesces them.
+ */
+public interface WorkoutPlanProvider {
+
+    /**
+     * Part of the cache key, so plans from one provider are never served for another. Change it when the
+     * prompt or model changes enough that cached plans should be regenerated.
+     */
+    String name();
+
+    WorkoutRoutine generate(WorkoutPlanRequest request);
+}
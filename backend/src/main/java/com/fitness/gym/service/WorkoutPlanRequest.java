@@ -0,0 +1,63 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.WorkoutPreferences;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Preferences in canonical form: trimmed, lower-case, single-spaced, with equipment and focus areas
+ * de-duplicated and sorted. Two requests that differ only in spelling or order map to the same plan.
+ */
+public record WorkoutPlanRequest(String goal,
+                                 String experienceLevel,
+                                 String duration,
+                                 List<String> equipment,
+                                 List<String> focusAreas,
+                                 int frequency) {
+
+    private static final int MAX_TEXT_LENGTH = 50;
+    private static final int MAX_ITEMS = 20;
+
+    public static WorkoutPlanRequest of(WorkoutPreferences preferences) {
+        if (preferences.getFrequency() == null || preferences.getFrequency() < 1 || preferences.getFrequency() > 7) {
+            throw new IllegalArgumentException("Frequency must be between 1 and 7 days per week");
+        }
+        return new WorkoutPlanRequest(
+                required("Goal", preferences.getGoal()),
+                required("Experience level", preferences.getExperienceLevel()),
+                required("Duration", preferences.getDuration()),
+                items("equipment", preferences.getEquipment()),
+                items("focus areas", preferences.getFocusAreas()),
+                preferences.getFrequency());
+    }
+
+    private static String required(String field, String value) {
+        String text = normalize(value);
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return text;
+    }
+
+    private static List<String> items(String field, List<String> values) {
+        TreeSet<String> items = new TreeSet<>();
+        if (values != null) {
+            values.stream().map(WorkoutPlanRequest::normalize).filter(item -> !item.isEmpty()).forEach(items::add);
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Too many " + field);
+        }
+        return List.copyOf(items);
+    }
+
+    private static String normalize(String value) {
+        String text = Objects.requireNonNullElse(value, "").strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("'" + text.substring(0, 20) + "...' is too long");
+        }
+        return text;
+    }
+}
@@ -0,0 +1,162 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.dto.WorkoutPreferences;
+import com.fitness.gym.dto.WorkoutRoutine;
+import com.fitness.gym.model.GeneratedWorkoutPlan;
+import com.fitness.gym.repository.GeneratedWorkoutPlanRepository;
+import com.fitness.gym.security.TokenHashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves generated workout plans from the generated_workout_plans table, keyed by provider and canonical
+ * preferences, and only calls the provider on a miss. Concurrent requests for the same plan wait on one
+ * generation. The table is trimmed to the most recently used {@code workouts.cache.max-entries} rows.
+ */
+@Service
+public class WorkoutPlanService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkoutPlanService.class);
+
+    private final WorkoutPlanProvider provider;
+    private final GeneratedWorkoutPlanRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long touchIntervalMs;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<WorkoutRoutine>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter generated;
+
+    public WorkoutPlanService(WorkoutPlanProvider provider,
+                              GeneratedWorkoutPlanRepository repository,
+                              ObjectMapper objectMapper,
+                              @Value("${workouts.cache.max-entries:10000}") int maxEntries,
+                              @Value("${workouts.cache.touch-interval-ms:3600000}") long touchIntervalMs,
+                              @Value("${workouts.generate.max-concurrent:4}") int maxConcurrent,
+                              @Value("${workouts.generate.queue:50}") int queueCapacity,
+                              WorkerThreads workerThreads,
+                              MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.touchIntervalMs = touchIntervalMs;
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                workerThreads.io("workout-generator"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hits = Counter.builder("workouts.cache.hits").register(meterRegistry);
+        this.coalesced = Counter.builder("workouts.generate.coalesced")
+                .description("Requests that waited on a generation already in progress")
+                .register(meterRegistry);
+        this.generated = Counter.builder("workouts.generate.calls")
+                .description("Calls made to the workout plan provider")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<WorkoutRoutine> generate(WorkoutPreferences preferences) {
+        WorkoutPlanRequest request = WorkoutPlanRequest.of(preferences);
+        String canonical = toJson(request);
+        String key = TokenHashing.sha256(provider.name() + "\n" + canonical);
+
+        Optional<WorkoutRoutine> cached = lookup(key);
+        if (cached.isPresent()) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        CompletableFuture<WorkoutRoutine> created = new CompletableFuture<>();
+        CompletableFuture<WorkoutRoutine> pending = inFlight.putIfAbsent(key, created);
+        if (pending != null) {
+            coalesced.increment();
+            return pending.copy();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    // A generation that finished between our lookup and taking the slot has already stored it
+                    WorkoutRoutine routine = lookup(key).orElseGet(() -> {
+                        generated.increment();
+                        WorkoutRoutine fresh = provider.generate(request);
+                        repository.insertIfAbsent(key, provider.name(), canonical, toJson(fresh), Instant.now());
+                        return fresh;
+                    });
+                    created.complete(routine);
+                } catch (RuntimeException e) {
+                    log.warn("Workout generation failed for {}", canonical, e);
+                    created.completeExceptionally(new WorkoutGenerationUnavailableException(e.getMessage()));
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(new WorkoutGenerationUnavailableException("Too many workout plans are being generated"));
+        }
+        // A copy, so one caller cancelling cannot complete the shared result for the others
+        return created.copy();
+    }
+
+    @Scheduled(fixedDelayString = "${workouts.cache.trim-ms:3600000}")
+    public void trim() {
+        // The first row past the limit; it and everything used no later than it go
+        List<Instant> cutoff = repository.findLastUsedAtDesc(PageRequest.of(maxEntries, 1));
+        if (!cutoff.isEmpty()) {
+            int removed = repository.deleteUsedAtOrBefore(cutoff.get(0));
+            log.debug("Trimmed {} cached workout plans", removed);
+        }
+    }
+
+    private Optional<WorkoutRoutine> lookup(String key) {
+        return repository.findById(key).map(entry -> {
+            Instant now = Instant.now();
+            if (entry.getLastUsedAt().isBefore(now.minusMillis(touchIntervalMs))) {
+                repository.touch(key, now, now.minusMillis(touchIntervalMs));
+            }
+            return fromJson(entry);
+        });
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize workout plan", e);
+        }
+    }
+
+    private WorkoutRoutine fromJson(GeneratedWorkoutPlan entry) {
+        try {
+            return objectMapper.readValue(entry.getPlan(), WorkoutRoutine.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read cached workout plan " + entry.getCacheKey(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,2 +1,130 @@
 -- Migration script to add missing age column
 ALTER TABLE users ADD COLUMN age INTEGER;
+
+-- Per-user token version used to revoke stateless access tokens
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
+CREATE INDEX idx_users_updated_at ON users(updated_at);
+
+-- Refresh tokens for /api/auth/refresh
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_hash CHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NULL,
+    UNIQUE INDEX idx_refresh_tokens_token_hash (token_hash),
+    INDEX idx_refresh_tokens_user_id (user_id),
+    INDEX idx_refresh_tokens_expires_at (expires_at)
+);
+
+-- Indexes backing the keyset-paged catalog (/api/supplements/page)
+DROP INDEX idx_supplements_category ON supplements;
+CREATE INDEX idx_supplements_category ON supplements(category, is_available);
+CREATE INDEX idx_supplements_available_price ON supplements(is_available, price, id);
+CREATE INDEX idx_supplements_available_name ON supplements(is_available, name, id);
+
+-- Orders and stock reservations created at checkout
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    total_amount DECIMAL(10,2) NOT NULL,
+    stripe_session_id VARCHAR(255) NULL,
+    reserved_until TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL,
+    UNIQUE INDEX idx_orders_stripe_session_id (stripe_session_id),
+    INDEX idx_orders_status_reserved_until (status, reserved_until)
+);
+ALTER TABLE purchase MODIFY COLUMN user_id BIGINT NULL;
+ALTER TABLE purchase MODIFY COLUMN product_id BIGINT NULL;
+ALTER TABLE purchase ADD COLUMN order_id BIGINT NULL;
+ALTER TABLE purchase ADD COLUMN supplement_id BIGINT NULL;
+ALTER TABLE purchase ADD COLUMN unit_price DECIMAL(10,2) NULL;
+CREATE INDEX idx_purchase_order_id ON purchase(order_id);
+
+-- Stripe webhook inbox and payment confirmation on order lines
+CREATE TABLE IF NOT EXISTS stripe_webhook_events (
+    id VARCHAR(255) PRIMARY KEY,
+    type VARCHAR(255) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    received_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP NULL,
+    last_error VARCHAR(1000) NULL,
+    INDEX idx_stripe_webhook_events_due (status, next_attempt_at)
+);
+ALTER TABLE purchase MODIFY COLUMN purchase_date TIMESTAMP NULL;
+
+-- Resized image variants generated after uploads
+ALTER TABLE users ADD COLUMN profile_picture_thumb_url VARCHAR(255);
+ALTER TABLE users ADD COLUMN profile_picture_card_url VARCHAR(255);
+ALTER TABLE supplements ADD COLUMN image_thumb_url VARCHAR(255);
+ALTER TABLE supplements ADD COLUMN image_card_url VARCHAR(255);
+
+-- Cache of generated workout plans
+CREATE TABLE IF NOT EXISTS generated_workout_plans (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    provider VARCHAR(50) NOT NULL,
+    preferences VARCHAR(2000) NOT NULL,
+    plan LONGTEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_used_at TIMESTAMP NOT NULL,
+    INDEX idx_generated_workout_plans_last_used_at (last_used_at)
+);
+
+-- Paid purchases are read incrementally by purchase date for supplement recommendations
+CREATE INDEX idx_purchase_purchase_date ON purchase(purchase_date);
+
+-- Logged workouts and their progress rollups
+CREATE TABLE IF NOT EXISTS workout_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    started_at TIMESTAMP NOT NULL,
+    ended_at TIMESTAMP NULL,
+    performed_on DATE NOT NULL,
+    notes VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_workout_sessions_user_started (user_id, started_at)
+);
+
+CREATE TABLE IF NOT EXISTS workout_sets (
+    session_id VARCHAR(36) NOT NULL,
+    exercise_index INT NOT NULL,
+    set_index INT NOT NULL,
+    exercise VARCHAR(100) NOT NULL,
+    reps INT NOT NULL,
+    load_kg DECIMAL(8,2) NOT NULL,
+    PRIMARY KEY (session_id, exercise_index, set_index),
+    FOREIGN KEY (session_id) REFERENCES workout_sessions(id) ON DELETE CASCADE
+);
+
+-- Day ('D') and ISO week ('W') totals per user and exercise, '*' for all exercises; added to as sessions are logged
+CREATE TABLE IF NOT EXISTS workout_rollups (
+    user_id BIGINT NOT NULL,
+    exercise VARCHAR(100) NOT NULL,
+    period CHAR(1) NOT NULL,
+    period_start DATE NOT NULL,
+    sessions INT NOT NULL,
+    sets INT NOT NULL,
+    reps INT NOT NULL,
+    volume DECIMAL(14,2) NOT NULL,
+    max_load DECIMAL(8,2) NOT NULL,
+    best_e1rm DECIMAL(8,2) NOT NULL,
+    prs INT NOT NULL,
+    PRIMARY KEY (user_id, exercise, period, period_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS workout_exercise_bests (
+    user_id BIGINT NOT NULL,
+    exercise VARCHAR(100) NOT NULL,
+    best_e1rm DECIMAL(8,2) NOT NULL,
+    achieved_on DATE NOT NULL,
+    PRIMARY KEY (user_id, exercise),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
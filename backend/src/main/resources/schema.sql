@@ -1,4 +1,10 @@
 -- Drop tables if they exist (in correct order due to foreign key constraints)
+DROP TABLE IF EXISTS workout_exercise_bests;
+DROP TABLE IF EXISTS workout_rollups;
+DROP TABLE IF EXISTS workout_sets;
+DROP TABLE IF EXISTS workout_sessions;
+DROP TABLE IF EXISTS generated_workout_plans;
+DROP TABLE IF EXISTS stripe_webhook_events;
 DROP TABLE IF EXISTS purchase;
 DROP TABLE IF EXISTS product;
 DROP TABLE IF EXISTS order_items;
@@ -7,6 +13,7 @@ DROP TABLE IF EXISTS cart_items;
 DROP TABLE IF EXISTS user_preferences;
 DROP TABLE IF EXISTS supplement_reviews;
 DROP TABLE IF EXISTS supplements;
+DROP TABLE IF EXISTS refresh_tokens;
 DROP TABLE IF EXISTS user_roles;
 DROP TABLE IF EXISTS users;
 
@@ -18,10 +25,13 @@ CREATE TABLE users (
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
     profile_picture VARCHAR(255),
+    profile_picture_thumb_url VARCHAR(255),
+    profile_picture_card_url VARCHAR(255),
     weight DOUBLE,
     height DOUBLE,
     fitness_goal VARCHAR(100),
     age INTEGER,
+    token_version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
@@ -34,6 +44,18 @@ CREATE TABLE user_roles (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Create Refresh Tokens table (only the SHA-256 of each token is stored)
+CREATE TABLE refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_hash CHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NULL,
+    UNIQUE INDEX idx_refresh_tokens_token_hash (token_hash),
+    INDEX idx_refresh_tokens_user_id (user_id),
+    INDEX idx_refresh_tokens_expires_at (expires_at)
+);
+
 -- Create Supplements table
 CREATE TABLE supplements (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -42,6 +64,8 @@ CREATE TABLE supplements (
     price DECIMAL(10,2) NOT NULL,
     stock_quantity INT NOT NULL DEFAULT 0,
     image_url VARCHAR(255),
+    image_thumb_url VARCHAR(255),
+    image_card_url VARCHAR(255),
     category VARCHAR(100),
     brand VARCHAR(100),
     usage_instructions TEXT,
@@ -76,16 +100,18 @@ CREATE TABLE supplement_reviews (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
--- Create Orders table
+-- Create Orders table (one per checkout; stock stays reserved until reserved_until unless paid)
 CREATE TABLE orders (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    user_id BIGINT NOT NULL,
+    user_id BIGINT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     total_amount DECIMAL(10,2) NOT NULL,
-    status ENUM('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED') DEFAULT 'PENDING',
-    shipping_address TEXT NOT NULL,
+    stripe_session_id VARCHAR(255) NULL,
+    reserved_until TIMESTAMP NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE RESTRICT
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL,
+    UNIQUE INDEX idx_orders_stripe_session_id (stripe_session_id),
+    INDEX idx_orders_status_reserved_until (status, reserved_until)
 );
 
 -- Create Order Items table
@@ -112,7 +138,10 @@ CREATE TABLE cart_items (
 );
 
 -- Add indexes for better query performance
-CREATE INDEX idx_supplements_category ON supplements(category);
+CREATE INDEX idx_supplements_category ON supplements(category, is_available);
+CREATE INDEX idx_supplements_available_price ON supplements(is_available, price, id);
+CREATE INDEX idx_supplements_available_name ON supplements(is_available, name, id);
+CREATE INDEX idx_users_updated_at ON users(updated_at);
 CREATE INDEX idx_orders_user_id ON orders(user_id);
 CREATE INDEX idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX idx_cart_items_user_id ON cart_items(user_id);
@@ -127,13 +156,96 @@ CREATE TABLE product (
     price DECIMAL(10,2) NOT NULL
 );
 
--- Create Purchase table (for supplement store)
+-- Create Purchase table (order lines written at checkout)
 CREATE TABLE purchase (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NULL,
+    product_id BIGINT NULL,
+    order_id BIGINT NULL,
+    supplement_id BIGINT NULL,
+    quantity_purchase INT NOT NULL,
+    unit_price DECIMAL(10,2) NULL,
+    purchase_date TIMESTAMP NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES product(id) ON DELETE CASCADE,
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
+    FOREIGN KEY (supplement_id) REFERENCES supplements(id) ON DELETE RESTRICT,
+    INDEX idx_purchase_order_id (order_id),
+    INDEX idx_purchase_purchase_date (purchase_date)
+);
+
+-- Inbox of verified Stripe webhook events, drained by background workers
+CREATE TABLE stripe_webhook_events (
+    id VARCHAR(255) PRIMARY KEY,
+    type VARCHAR(255) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    received_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP NULL,
+    last_error VARCHAR(1000) NULL,
+    INDEX idx_stripe_webhook_events_due (status, next_attempt_at)
+);
+
+-- Workout plans generated per canonical preference set, shared by everyone asking for the same plan
+CREATE TABLE generated_workout_plans (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    provider VARCHAR(50) NOT NULL,
+    preferences VARCHAR(2000) NOT NULL,
+    plan LONGTEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_used_at TIMESTAMP NOT NULL,
+    INDEX idx_generated_workout_plans_last_used_at (last_used_at)
+);
+
+-- Logged workouts, written in JDBC batches by WorkoutLogService
+CREATE TABLE workout_sessions (
+    id VARCHAR(36) PRIMARY KEY,
     user_id BIGINT NOT NULL,
-    product_id BIGINT NOT NULL,
-    quantity INT NOT NULL,
-    purchase_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    name VARCHAR(255),
+    started_at TIMESTAMP NOT NULL,
+    ended_at TIMESTAMP NULL,
+    performed_on DATE NOT NULL,
+    notes VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    FOREIGN KEY (product_id) REFERENCES product(id) ON DELETE CASCADE
+    INDEX idx_workout_sessions_user_started (user_id, started_at)
+);
+
+CREATE TABLE workout_sets (
+    session_id VARCHAR(36) NOT NULL,
+    exercise_index INT NOT NULL,
+    set_index INT NOT NULL,
+    exercise VARCHAR(100) NOT NULL,
+    reps INT NOT NULL,
+    load_kg DECIMAL(8,2) NOT NULL,
+    PRIMARY KEY (session_id, exercise_index, set_index),
+    FOREIGN KEY (session_id) REFERENCES workout_sessions(id) ON DELETE CASCADE
+);
+
+-- Day ('D') and ISO week ('W') totals per user and exercise, '*' for all exercises; added to as sessions are logged
+CREATE TABLE workout_rollups (
+    user_id BIGINT NOT NULL,
+    exercise VARCHAR(100) NOT NULL,
+    period CHAR(1) NOT NULL,
+    period_start DATE NOT NULL,
+    sessions INT NOT NULL,
+    sets INT NOT NULL,
+    reps INT NOT NULL,
+    volume DECIMAL(14,2) NOT NULL,
+    max_load DECIMAL(8,2) NOT NULL,
+    best_e1rm DECIMAL(8,2) NOT NULL,
+    prs INT NOT NULL,
+    PRIMARY KEY (user_id, exercise, period, period_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE workout_exercise_bests (
+    user_id BIGINT NOT NULL,
+    exercise VARCHAR(100) NOT NULL,
+    best_e1rm DECIMAL(8,2) NOT NULL,
+    achieved_on DATE NOT NULL,
+    PRIMARY KEY (user_id, exercise),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
@@ -0,0 +1,161 @@
+package com.fitness.gym.load;
+
+import com.fitness.gym.GymApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request handling on platform and virtual threads with the full application context serving an
+ * endpoint that blocks on a slow upstream. Not part of the regular build; run it with
+ * {@code mvn test -Dtest=VirtualThreadLoadTest -Dload=true}. Tunables: {@code load.clients} (comma-separated
+ * concurrency levels, default 200,1000), {@code load.duration-s} (default 20) and {@code load.upstream-delay-ms}
+ * (default 2000).
+ */
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int DURATION_S = Integer.getInteger("load.duration-s", 20);
+    private static final int UPSTREAM_DELAY_MS = Integer.getInteger("load.upstream-delay-ms", 2000);
+    private static final int[] CLIENTS = Arrays.stream(System.getProperty("load.clients", "200,1000").split(","))
+            .map(String::strip)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    private static HttpServer upstream;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        upstream.createContext("/", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void compareExecutionModels() throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GymApplication.class,
+                    SlowUpstreamController.class)
+                    .properties("server.port=0",
+                            "spring.threads.virtual.enabled=" + virtual,
+                            "load.upstream-url=http://localhost:" + upstream.getAddress().getPort() + "/")
+                    .run()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + SlowUpstreamController.PATH);
+                for (int clients : CLIENTS) {
+                    Result result = drive(uri, clients);
+                    System.out.printf("%-8s threads, %5d clients: %6.1f req/s, mean %5d ms, %d failed%n",
+                            virtual ? "virtual" : "platform", clients, result.throughput(), result.meanMillis(),
+                            result.failed());
+                    assertThat(result.ok()).isPositive();
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps {@code clients} requests in flight for the configured duration, each client sending its next request
+     * as soon as the previous one completes.
+     */
+    private static Result drive(URI uri, int clients) throws InterruptedException {
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(DURATION_S);
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+            for (int i = 0; i < clients; i++) {
+                callers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                ok.incrementAndGet();
+                                latencyNanos.addAndGet(System.nanoTime() - sent);
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failed.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                });
+            }
+            callers.shutdown();
+            callers.awaitTermination(DURATION_S + 120L, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long completed = ok.get();
+        long meanMillis = completed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencyNanos.get() / completed);
+        return new Result(completed, failed.get(), completed / seconds, meanMillis);
+    }
+
+    private record Result(long ok, long failed, double throughput, long meanMillis) {
+    }
+
+    @RestController
+    static class SlowUpstreamController {
+
+        static final String PATH = "/api/supplements/load-probe";
+
+        @Value("${load.upstream-url}")
+        private String upstreamUrl;
+
+        // A blocking call, like the Stripe and S3 SDK calls made from request threads
+        @GetMapping(PATH)
+        String probe() throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) URI.create(upstreamUrl).toURL().openConnection();
+            try (InputStream in = connection.getInputStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.fitness.gym.security;
+
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void exportNeedsTheAdminRole() throws Exception {
+        mockMvc.perform(get("/api/supplements/export"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/supplements/export").header(HttpHeaders.AUTHORIZATION, bearer("member@example.com", "ROLE_USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/supplements/export").header(HttpHeaders.AUTHORIZATION, bearer("staff@example.com", "ROLE_ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void stockAdjustmentNeedsTheAdminRole() throws Exception {
+        mockMvc.perform(patch("/api/supplements/1/stock").contentType("application/json").content("{\"delta\":5}")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("member@example.com", "ROLE_USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void catalogReadsStayPublic() throws Exception {
+        mockMvc.perform(get("/api/supplements/page"))
+                .andExpect(status().isOk());
+    }
+
+    private String bearer(String email, String role) {
+        User user = userRepository.findByEmail(email).orElseGet(() -> {
+            User created = new User();
+            created.setEmail(email);
+            created.setPassword("unused");
+            created.setFirstName("Admin");
+            created.setLastName("Test");
+            created.setRoles(Set.of(role));
+            return userRepository.save(created);
+        });
+        return "Bearer " + jwtTokenProvider.generateToken(email, Set.of(role), user.getTokenVersion());
+    }
+}
@@ -0,0 +1,99 @@
+package com.fitness.gym.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET_A = "a".repeat(64);
+    private static final String SECRET_B = "b".repeat(64);
+    private static final int EXPIRATION_MS = 2000;
+
+    @TempDir
+    Path directory;
+
+    private Path keysFile;
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        keysFile = directory.resolve("jwt-keys");
+        Files.writeString(keysFile, "a:" + SECRET_A + "\n");
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", "unused");
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", EXPIRATION_MS);
+        ReflectionTestUtils.setField(provider, "keyId", "primary");
+        ReflectionTestUtils.setField(provider, "previousKeys", "");
+        ReflectionTestUtils.setField(provider, "keysFile", keysFile.toString());
+        provider.init();
+    }
+
+    @Test
+    void rotationFromTheKeysFileKeepsTheOutgoingKeyForOneTokenLifetime() throws Exception {
+        String signedWithA = longLivedToken("a", SECRET_A);
+        assertThat(provider.parseToken(signedWithA)).isNotNull();
+
+        // Rotate by replacing the file with only the new key
+        Files.writeString(keysFile, "b:" + SECRET_B + "\n");
+        provider.reloadKeys();
+
+        String issued = provider.generateToken("user@example.com", List.of("ROLE_USER"), 0);
+        assertThat(Jwts.parserBuilder().setSigningKey(key(SECRET_B)).build().parseClaimsJws(issued).getHeader().getKeyId())
+                .isEqualTo("b");
+        assertThat(provider.parseToken(signedWithA)).isNotNull();
+
+        Thread.sleep(EXPIRATION_MS + 50);
+        provider.reloadKeys();
+        assertThat(provider.parseToken(signedWithA)).isNull();
+        assertThat(provider.parseToken(longLivedToken("b", SECRET_B))).isNotNull();
+    }
+
+    @Test
+    void keysRemovedFromTheFileStopVerifyingUnlessTheySigned() throws Exception {
+        Files.writeString(keysFile, "a:" + SECRET_A + "\nold:" + SECRET_B + "\n");
+        provider.reloadKeys();
+        String signedWithOld = longLivedToken("old", SECRET_B);
+        assertThat(provider.parseToken(signedWithOld)).isNotNull();
+
+        Files.writeString(keysFile, "a:" + SECRET_A + "\n");
+        provider.reloadKeys();
+        assertThat(provider.parseToken(signedWithOld)).isNull();
+    }
+
+    @Test
+    void anUnreadableKeysFileKeepsTheCurrentKeys() throws Exception {
+        String signedWithA = longLivedToken("a", SECRET_A);
+        Files.delete(keysFile);
+        provider.reloadKeys();
+
+        assertThat(provider.parseToken(signedWithA)).isNotNull();
+    }
+
+    private static String longLivedToken(String kid, String secret) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, kid)
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(key(secret), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private static java.security.Key key(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
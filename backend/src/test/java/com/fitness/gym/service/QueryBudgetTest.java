@@ -0,0 +1,155 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.CartRequest;
+import com.fitness.gym.dto.ProductRequest;
+import com.fitness.gym.dto.StripeResponse;
+import com.fitness.gym.dto.UserProfile;
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.SupplementRepository;
+import com.fitness.gym.repository.UserRepository;
+import com.stripe.model.checkout.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the budgeted read paths against H2 with {@code persistence.query-budget.fail-on-exceed} on, so a change
+ * that adds a query to one of them (typically a lazy load per row) fails here.
+ */
+@SpringBootTest
+@Import(QueryBudgetTest.Budgeted.class)
+class QueryBudgetTest {
+
+    private static final String EMAIL = "budget@example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Autowired
+    private SupplementPriceMap supplementPriceMap;
+
+    @Autowired
+    private SupplementCatalog supplementCatalog;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private StripeService stripeService;
+
+    @Autowired
+    private Budgeted budgeted;
+
+    @MockBean
+    private StripeGateway stripeGateway;
+
+    private List<Long> supplementIds;
+
+    @BeforeEach
+    void seed() {
+        if (userRepository.findIdByEmail(EMAIL).isEmpty()) {
+            User user = new User();
+            user.setEmail(EMAIL);
+            user.setPassword("unused");
+            user.setFirstName("Budget");
+            user.setLastName("Test");
+            user.setRoles(Set.of("ROLE_USER"));
+            userRepository.save(user);
+        }
+        if (supplementRepository.count() == 0) {
+            for (int i = 0; i < 5; i++) {
+                Supplement supplement = new Supplement();
+                supplement.setName("Supplement " + i);
+                supplement.setCategory(i % 2 == 0 ? "protein" : "vitamins");
+                supplement.setPrice(new BigDecimal("19.99"));
+                supplement.setPriceId("price_" + i);
+                supplement.setStockQuantity(100);
+                supplementRepository.save(supplement);
+            }
+        }
+        supplementIds = supplementRepository.findAll().stream().map(Supplement::getId).toList();
+        supplementPriceMap.rebuild();
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getProfileIsOneQuery() {
+        UserProfile profile = authService.getProfile(EMAIL);
+
+        assertThat(profile.email()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void catalogLoadIsOneQuery() {
+        SupplementCatalog.Snapshot snapshot = supplementCatalog.rebuild();
+
+        assertThat(new String(snapshot.json())).contains("Supplement 4");
+    }
+
+    @Test
+    void checkoutCartReadsOnlyTheUserId() {
+        Session session = new Session();
+        session.setId("cs_test_budget");
+        session.setUrl("https://checkout.stripe.test/cs_test_budget");
+        when(stripeGateway.createCheckoutSession(any(), any())).thenReturn(CompletableFuture.completedFuture(session));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                EMAIL, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        CartRequest cart = new CartRequest(supplementIds.stream().limit(4).map(id -> {
+            ProductRequest line = new ProductRequest();
+            line.setSupplementId(id);
+            line.setQuantity(1L);
+            return line;
+        }).toList());
+        StripeResponse response = stripeService.checkoutCart(cart, null).join();
+
+        assertThat(response.getStatus()).isEqualTo("Success");
+        assertThat(response.getOrderId()).isNotNull();
+    }
+
+    @Test
+    void exceedingTheBudgetFails() {
+        assertThatThrownBy(() -> budgeted.loadUser(EMAIL))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("budget is 0");
+    }
+
+    @TestConfiguration
+    static class Budgeted {
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @QueryBudget(0)
+        public User loadUser(String email) {
+            return userRepository.findByEmail(email).orElseThrow();
+        }
+    }
+}
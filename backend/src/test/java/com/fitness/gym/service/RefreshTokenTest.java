@@ -0,0 +1,77 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.AuthResponse;
+import com.fitness.gym.dto.RefreshTokenRequest;
+import com.fitness.gym.model.User;
+import com.fitness.gym.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+class RefreshTokenTest {
+
+    private static final String EMAIL = "refresh@example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @SpyBean
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> {
+            User created = new User();
+            created.setEmail(EMAIL);
+            created.setPassword("unused");
+            created.setFirstName("Refresh");
+            created.setLastName("Test");
+            created.setRoles(Set.of("ROLE_USER"));
+            return userRepository.save(created);
+        });
+    }
+
+    @Test
+    void failedIssueLeavesTheTokenUnused() {
+        String token = refreshTokenService.issue(user);
+        doThrow(new IllegalStateException("database unavailable")).when(refreshTokenService).issue(any());
+
+        assertThatThrownBy(() -> authService.refresh(request(token))).isInstanceOf(IllegalStateException.class);
+
+        doCallRealMethod().when(refreshTokenService).issue(any());
+        AuthResponse response = authService.refresh(request(token));
+        assertThat(response.getRefreshToken()).isNotEqualTo(token);
+    }
+
+    @Test
+    void reusedTokenRevokesTheUsersTokens() {
+        String token = refreshTokenService.issue(user);
+        AuthResponse rotated = authService.refresh(request(token));
+
+        assertThatThrownBy(() -> authService.refresh(request(token))).isInstanceOf(RefreshTokenReusedException.class);
+        assertThatThrownBy(() -> authService.refresh(request(rotated.getRefreshToken())))
+                .hasMessage("Refresh token is invalid");
+    }
+
+    private static RefreshTokenRequest request(String token) {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(token);
+        return request;
+    }
+}
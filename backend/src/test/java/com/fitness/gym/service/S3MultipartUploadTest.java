@@ -0,0 +1,218 @@
+package com.fitness.gym.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs {@link S3Service}'s multipart path against an in-memory S3 client with the smallest part size S3 allows.
+ * A permit that is never handed back blocks the reader, so a leak shows up as a timeout.
+ */
+@Timeout(30)
+class S3MultipartUploadTest {
+
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+
+    private final FakeS3 s3 = new FakeS3();
+    private S3Service service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void partsAreCompletedInOrderWhenUploadsFinishOutOfOrder() throws IOException {
+        service = service(4);
+        // Earlier parts take longer, so part 4 finishes first
+        s3.delay = partNumber -> (5 - partNumber) * 100L;
+
+        service.uploadFile("uploads/big.jpg", jpeg(4));
+
+        assertThat(s3.completed).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3, 4);
+        assertThat(s3.completed).extracting(CompletedPart::eTag).containsExactly("etag-1", "etag-2", "etag-3", "etag-4");
+        for (int partNumber = 1; partNumber <= 4; partNumber++) {
+            byte[] body = s3.bodies.get(partNumber);
+            assertThat(body).hasSize(partNumber < 4 ? PART_SIZE : 1024);
+            assertThat(body[body.length - 1]).isEqualTo((byte) partNumber);
+        }
+        assertThat(s3.aborted).isZero();
+    }
+
+    @Test
+    void aFailedPartAbortsTheUpload() {
+        service = service(2);
+        s3.failPart = 2;
+
+        assertThatThrownBy(() -> service.uploadFile("uploads/big.jpg", jpeg(4)))
+                .isInstanceOf(S3Exception.class);
+
+        assertThat(s3.aborted).isEqualTo(1);
+        assertThat(s3.completed).isNull();
+    }
+
+    @Test
+    void aFailedReadAbortsTheUpload() {
+        service = service(2);
+        byte[] content = content(4);
+        MockMultipartFile file = new MockMultipartFile("file", "big.jpg", "image/jpeg", content) {
+            @Override
+            public InputStream getInputStream() {
+                // Breaks partway through the second part
+                return new ByteArrayInputStream(content, 0, PART_SIZE + PART_SIZE / 2) {
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) {
+                        if (pos >= count) {
+                            throw new UncheckedIOException(new IOException("Connection reset"));
+                        }
+                        return super.read(buffer, offset, length);
+                    }
+                };
+            }
+        };
+
+        assertThatThrownBy(() -> service.uploadFile("uploads/big.jpg", file))
+                .hasRootCauseMessage("Connection reset");
+
+        assertThat(s3.aborted).isEqualTo(1);
+        assertThat(s3.completed).isNull();
+    }
+
+    @Test
+    void permitsCapPartsInFlightAndAreReleasedAsPartsFinish() throws IOException {
+        // One permit for six parts: the upload only finishes if every part hands its permit back
+        service = service(1);
+        s3.delay = partNumber -> 20L;
+
+        service.uploadFile("uploads/big.jpg", jpeg(6));
+
+        assertThat(s3.completed).hasSize(6);
+        assertThat(s3.maxInFlight.get()).isEqualTo(1);
+    }
+
+    @Test
+    void partsInFlightNeverExceedTheConcurrency() throws IOException {
+        service = service(2);
+        s3.delay = partNumber -> 50L;
+
+        service.uploadFile("uploads/big.jpg", jpeg(6));
+
+        assertThat(s3.completed).hasSize(6);
+        assertThat(s3.maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    private S3Service service(int concurrency) {
+        return new S3Service(s3, "bucket", DataSize.ofMegabytes(64), DataSize.ofBytes(1), DataSize.ofMegabytes(5),
+                concurrency, 8, Set.of("image/jpeg"), "", new WorkerThreads(false));
+    }
+
+    private static MockMultipartFile jpeg(int parts) {
+        return new MockMultipartFile("file", "big.jpg", "image/jpeg", content(parts));
+    }
+
+    // Part n is filled with the byte n, after a JPEG header at the very start; the last part is 1KB
+    private static byte[] content(int parts) {
+        byte[] content = new byte[(parts - 1) * PART_SIZE + 1024];
+        for (int part = 0; part < parts; part++) {
+            Arrays.fill(content, part * PART_SIZE, Math.min(content.length, (part + 1) * PART_SIZE), (byte) (part + 1));
+        }
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+        return content;
+    }
+
+    private static class FakeS3 implements S3Client {
+
+        interface Delay {
+            long millis(int partNumber);
+        }
+
+        volatile Delay delay = partNumber -> 0L;
+        volatile int failPart;
+        final Map<Integer, byte[]> bodies = new ConcurrentHashMap<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile List<CompletedPart> completed;
+        volatile int aborted;
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            return CreateMultipartUploadResponse.builder().uploadId("upload-1").build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            int partNumber = request.partNumber();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                if (partNumber == failPart) {
+                    throw S3Exception.builder().message("Part " + partNumber + " failed").statusCode(500).build();
+                }
+                Thread.sleep(delay.millis(partNumber));
+                try (InputStream input = body.contentStreamProvider().newStream()) {
+                    bodies.put(partNumber, input.readAllBytes());
+                }
+                return UploadPartResponse.builder().eTag("etag-" + partNumber).build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            completed = request.multipartUpload().parts();
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            aborted++;
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
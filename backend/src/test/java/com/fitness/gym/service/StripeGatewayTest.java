@@ -0,0 +1,211 @@
+package com.fitness.gym.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.checkout.SessionCreateParams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link StripeGateway} against a local HTTP stub set through {@code stripe.api-base}, so timeouts, the
+ * circuit breaker and the bulkhead see real Stripe client behaviour.
+ */
+@Timeout(30)
+class StripeGatewayTest {
+
+    private static final String SESSION = "{\"id\":\"cs_test_1\",\"object\":\"checkout.session\","
+            + "\"url\":\"https://checkout.stripe.com/c/pay/cs_test_1\"}";
+    private static final String API_ERROR = "{\"error\":{\"type\":\"api_error\",\"message\":\"Stripe is down\"}}";
+
+    private enum Mode { OK, ERROR, SLOW, BLOCK }
+
+    private HttpServer stub;
+    private final ExecutorService stubThreads = Executors.newCachedThreadPool();
+    private volatile Mode mode = Mode.OK;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StripeGateway gateway;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.createContext("/v1/checkout/sessions", this::handle);
+        stub.setExecutor(stubThreads);
+        stub.start();
+    }
+
+    @AfterEach
+    void stop() {
+        unblock.countDown();
+        if (gateway != null) {
+            gateway.shutdown();
+        }
+        stub.stop(0);
+        stubThreads.shutdownNow();
+    }
+
+    @Test
+    void aSlowResponseTimesOutAsAConnectionError() {
+        gateway = gateway(200, 16, 32, 5, 30_000);
+        mode = Mode.SLOW;
+
+        long startedAt = System.nanoTime();
+        Throwable error = failure(create());
+
+        assertThat(error).isInstanceOf(ApiConnectionException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(2_000);
+    }
+
+    @Test
+    void repeatedOutagesOpenTheCircuit() {
+        gateway = gateway(2_000, 16, 32, 3, 30_000);
+        mode = Mode.ERROR;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(failure(create())).isInstanceOf(ApiException.class);
+        }
+        assertThat(failure(create())).isInstanceOf(StripeUnavailableException.class).hasMessage("Stripe circuit is open");
+
+        assertThat(hits.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("stripe.circuit.open").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("stripe.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aSuccessfulTrialCallClosesTheCircuit() throws InterruptedException {
+        gateway = gateway(2_000, 16, 32, 2, 200);
+        mode = Mode.ERROR;
+        failure(create());
+        failure(create());
+        assertThat(failure(create())).isInstanceOf(StripeUnavailableException.class);
+
+        Thread.sleep(300);
+        mode = Mode.OK;
+
+        assertThat(create().join().getId()).isEqualTo("cs_test_1");
+        assertThat(create().join().getId()).isEqualTo("cs_test_1");
+        assertThat(hits.get()).isEqualTo(4);
+        assertThat(meterRegistry.get("stripe.circuit.open").gauge().value()).isZero();
+    }
+
+    @Test
+    void aFailedTrialCallReopensTheCircuitAndOnlyOneTrialRuns() throws InterruptedException {
+        gateway = gateway(500, 16, 32, 2, 200);
+        mode = Mode.ERROR;
+        failure(create());
+        failure(create());
+
+        Thread.sleep(300);
+        // The trial hangs until the read timeout; a second caller meanwhile is refused
+        mode = Mode.SLOW;
+        CompletableFuture<Session> trial = create();
+        while (hits.get() < 3) {
+            Thread.sleep(10);
+        }
+        assertThat(failure(create())).isInstanceOf(StripeUnavailableException.class);
+
+        assertThat(failure(trial)).isInstanceOf(ApiConnectionException.class);
+        // One failed trial is enough to open again, without counting up to the threshold
+        mode = Mode.OK;
+        assertThat(failure(create())).isInstanceOf(StripeUnavailableException.class);
+        assertThat(hits.get()).isEqualTo(3);
+    }
+
+    @Test
+    void aFullPoolRejectsAtOnce() throws InterruptedException {
+        gateway = gateway(10_000, 1, 1, 5, 30_000);
+        mode = Mode.BLOCK;
+
+        CompletableFuture<Session> running = create();
+        while (hits.get() < 1) {
+            Thread.sleep(10);
+        }
+        CompletableFuture<Session> queued = create();
+
+        assertThat(failure(create())).isInstanceOf(StripeUnavailableException.class)
+                .hasMessage("Too many concurrent Stripe calls");
+        assertThat(meterRegistry.get("stripe.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("stripe.queue.depth").gauge().value()).isEqualTo(1);
+
+        unblock.countDown();
+        assertThat(running.join().getId()).isEqualTo("cs_test_1");
+        assertThat(queued.join().getId()).isEqualTo("cs_test_1");
+        // A rejection is local and says nothing about Stripe, so the circuit stays closed
+        assertThat(meterRegistry.get("stripe.circuit.open").gauge().value()).isZero();
+    }
+
+    private StripeGateway gateway(int readTimeoutMs, int maxConcurrentCalls, int queueCapacity,
+                                  int failureThreshold, long openMs) {
+        String apiBase = "http://localhost:" + stub.getAddress().getPort();
+        return new StripeGateway("sk_test_stub", apiBase, 1_000, readTimeoutMs, 0, maxConcurrentCalls, queueCapacity,
+                failureThreshold, openMs, meterRegistry, new WorkerThreads(false));
+    }
+
+    private CompletableFuture<Session> create() {
+        SessionCreateParams params = SessionCreateParams.builder()
+                .setMode(SessionCreateParams.Mode.PAYMENT)
+                .setSuccessUrl("https://gym.test/success")
+                .build();
+        return gateway.createCheckoutSession(params, RequestOptions.getDefault());
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        Throwable error = future.handle((result, e) -> e).join();
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            switch (mode) {
+                case OK -> respond(exchange, 200, SESSION);
+                case ERROR -> respond(exchange, 500, API_ERROR);
+                case SLOW -> {
+                    Thread.sleep(2_000);
+                    respond(exchange, 200, SESSION);
+                }
+                case BLOCK -> {
+                    unblock.await(20, TimeUnit.SECONDS);
+                    respond(exchange, 200, SESSION);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            // The client gave up after its read timeout
+        }
+    }
+}
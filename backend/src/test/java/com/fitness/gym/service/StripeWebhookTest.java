@@ -0,0 +1,211 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.model.Order;
+import com.fitness.gym.model.OrderStatus;
+import com.fitness.gym.model.StripeWebhookEvent;
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.OrderRepository;
+import com.fitness.gym.repository.StripeWebhookEventRepository;
+import com.fitness.gym.repository.SupplementRepository;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Replays recorded Stripe events, signed with the test secret, through the webhook endpoint and then runs
+ * the inbox worker by hand. The scheduled poller is pushed out so it never races the test.
+ */
+@SpringBootTest(properties = {
+        "stripe.webhookSecret=" + StripeWebhookTest.SECRET,
+        "stripe.webhook.poll-ms=3600000",
+        "stripe.webhook.max-attempts=3",
+        "stripe.webhook.backoff-ms=60000",
+        "stripe.webhook.max-backoff-ms=600000"
+})
+@AutoConfigureMockMvc
+class StripeWebhookTest {
+
+    static final String SECRET = "whsec_test_replay";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StripeWebhookService stripeWebhookService;
+
+    @Autowired
+    private StripeWebhookEventRepository eventRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Test
+    void aCompletedSessionMarksTheOrderPaid() throws Exception {
+        Long supplementId = supplement(10);
+        Order order = reserve(supplementId, 2);
+        String eventId = eventId();
+
+        deliver(recorded("checkout.session.completed", eventId, order.getId()));
+        stripeWebhookService.processDue();
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(supplementRepository.findById(supplementId).orElseThrow().getStockQuantity()).isEqualTo(8);
+        StripeWebhookEvent event = eventRepository.findById(eventId).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(StripeWebhookEvent.Status.PROCESSED);
+        assertThat(event.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void anExpiredSessionReleasesTheStock() throws Exception {
+        Long supplementId = supplement(10);
+        Order order = reserve(supplementId, 2);
+        String eventId = eventId();
+
+        deliver(recorded("checkout.session.expired", eventId, order.getId()));
+        stripeWebhookService.processDue();
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.EXPIRED);
+        assertThat(supplementRepository.findById(supplementId).orElseThrow().getStockQuantity()).isEqualTo(10);
+        assertThat(eventRepository.findById(eventId).orElseThrow().getStatus()).isEqualTo(StripeWebhookEvent.Status.PROCESSED);
+    }
+
+    @Test
+    void aRedeliveredEventIsStoredOnce() throws Exception {
+        Long supplementId = supplement(10);
+        Order order = reserve(supplementId, 2);
+        String eventId = eventId();
+        String payload = recorded("checkout.session.completed", eventId, order.getId());
+        long before = eventRepository.count();
+
+        // Stripe signs every delivery afresh, so the retry carries a new header for the same body
+        deliver(payload);
+        deliver(payload);
+        stripeWebhookService.processDue();
+        deliver(payload);
+        stripeWebhookService.processDue();
+
+        assertThat(eventRepository.count()).isEqualTo(before + 1);
+        StripeWebhookEvent event = eventRepository.findById(eventId).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(StripeWebhookEvent.Status.PROCESSED);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(supplementRepository.findById(supplementId).orElseThrow().getStockQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    void aFailingEventBacksOffAndEndsFailed() throws Exception {
+        // No such order, so every attempt throws
+        String eventId = eventId();
+        deliver(recorded("checkout.session.completed", eventId, Long.MAX_VALUE));
+
+        stripeWebhookService.processDue();
+        StripeWebhookEvent event = eventRepository.findById(eventId).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(StripeWebhookEvent.Status.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getLastError()).contains("Order not found");
+        assertThat(event.getNextAttemptAt()).isCloseTo(Instant.now().plusSeconds(60), within(5, ChronoUnit.SECONDS));
+
+        // Not due yet, so another poll leaves it alone
+        stripeWebhookService.processDue();
+        assertThat(eventRepository.findById(eventId).orElseThrow().getAttempts()).isEqualTo(1);
+
+        makeDue(eventId);
+        stripeWebhookService.processDue();
+        event = eventRepository.findById(eventId).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(StripeWebhookEvent.Status.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(2);
+        assertThat(event.getNextAttemptAt()).isCloseTo(Instant.now().plusSeconds(120), within(5, ChronoUnit.SECONDS));
+
+        makeDue(eventId);
+        stripeWebhookService.processDue();
+        event = eventRepository.findById(eventId).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(StripeWebhookEvent.Status.FAILED);
+        assertThat(event.getAttempts()).isEqualTo(3);
+
+        makeDue(eventId);
+        stripeWebhookService.processDue();
+        assertThat(eventRepository.findById(eventId).orElseThrow().getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void aBadSignatureIsRejected() throws Exception {
+        String eventId = eventId();
+        String payload = recorded("checkout.session.completed", eventId, 1L);
+
+        mockMvc.perform(post("/api/product/v1/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload)
+                        .header("Stripe-Signature", signature(payload.replace("paid", "unpaid"))))
+                .andExpect(status().isBadRequest());
+
+        assertThat(eventRepository.findById(eventId)).isEmpty();
+    }
+
+    private void deliver(String payload) throws Exception {
+        mockMvc.perform(post("/api/product/v1/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload)
+                        .header("Stripe-Signature", signature(payload)))
+                .andExpect(status().isOk());
+    }
+
+    private void makeDue(String eventId) {
+        StripeWebhookEvent event = eventRepository.findById(eventId).orElseThrow();
+        event.setNextAttemptAt(Instant.now().minusSeconds(1));
+        eventRepository.save(event);
+    }
+
+    private Long supplement(int stock) {
+        Supplement supplement = new Supplement();
+        supplement.setName("Creatine");
+        supplement.setCategory("performance");
+        supplement.setPrice(new BigDecimal("19.99"));
+        supplement.setPriceId("price_webhook_" + UUID.randomUUID());
+        supplement.setStockQuantity(stock);
+        return supplementRepository.save(supplement).getId();
+    }
+
+    private Order reserve(Long supplementId, int quantity) {
+        SupplementPriceMap.Price price = new SupplementPriceMap.Price(supplementId, "Creatine", "price_webhook",
+                new BigDecimal("19.99"), true);
+        return orderService.reserve(null, List.of(new SupplementPriceMap.Line(price, quantity)));
+    }
+
+    private static String eventId() {
+        return "evt_test_" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static String recorded(String type, String eventId, Long orderId) throws IOException {
+        String payload = new ClassPathResource("stripe/" + type + ".json").getContentAsString(StandardCharsets.UTF_8);
+        return payload.replace("{{event_id}}", eventId).replace("{{order_id}}", String.valueOf(orderId));
+    }
+
+    // The Stripe-Signature header: an HMAC-SHA256 of "<timestamp>.<payload>" under the endpoint secret
+    private static String signature(String payload) throws Exception {
+        long timestamp = Instant.now().getEpochSecond();
+        return "t=" + timestamp + ",v1=" + Webhook.Util.computeHmacSha256(SECRET, timestamp + "." + payload);
+    }
+}
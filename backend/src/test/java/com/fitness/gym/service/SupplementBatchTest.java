@@ -0,0 +1,46 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.SupplementBatch;
+import com.fitness.gym.dto.SupplementDetail;
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.SupplementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SupplementBatchTest {
+
+    @Autowired
+    private SupplementService supplementService;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Test
+    void deletedAndMissingIdsAreNotFound() {
+        Long kept = save("Fish Oil");
+        Long deleted = save("Discontinued Blend");
+        supplementService.deleteSupplement(deleted);
+
+        SupplementBatch batch = supplementService.getSupplementDetails(List.of(deleted, kept, -1L, kept));
+
+        assertThat(batch.supplements()).extracting(SupplementDetail::id).containsExactly(kept);
+        assertThat(batch.notFound()).containsExactly(deleted, -1L);
+    }
+
+    private Long save(String name) {
+        Supplement supplement = new Supplement();
+        supplement.setName(name);
+        supplement.setCategory("health");
+        supplement.setPrice(new BigDecimal("14.99"));
+        supplement.setPriceId("price_" + name.hashCode());
+        supplement.setIsAvailable(true);
+        return supplementRepository.save(supplement).getId();
+    }
+}
@@ -0,0 +1,60 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.dto.BulkImportResult;
+import com.fitness.gym.model.Order;
+import com.fitness.gym.model.OrderStatus;
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.SupplementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SupplementBulkImportTest {
+
+    @Autowired
+    private SupplementBulkService supplementBulkService;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void importedStockLeavesPendingReservationsHeld() throws Exception {
+        Supplement supplement = new Supplement();
+        supplement.setName("BCAA");
+        supplement.setCategory("recovery");
+        supplement.setPrice(new BigDecimal("19.99"));
+        supplement.setPriceId("price_bulk");
+        supplement.setStockQuantity(10);
+        Long id = supplementRepository.save(supplement).getId();
+        SupplementPriceMap.Price price = new SupplementPriceMap.Price(id, "BCAA", "price_bulk", new BigDecimal("19.99"), true);
+        Order order = orderService.reserve(null, List.of(new SupplementPriceMap.Line(price, 3)));
+
+        BulkImportResult result = supplementBulkService.importNdjson(ndjson(
+                "{\"id\":" + id + ",\"name\":\"BCAA\",\"category\":\"recovery\",\"price\":21.99,\"price_id\":\"price_bulk\",\"stockQuantity\":20}",
+                "{\"name\":\"Glutamine\",\"category\":\"recovery\",\"price\":12.50,\"price_id\":\"price_bulk_new\",\"stockQuantity\":5}"));
+
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(supplementRepository.findById(id).orElseThrow().getStockQuantity()).isEqualTo(17);
+        assertThat(supplementRepository.findAll()).filteredOn(s -> "Glutamine".equals(s.getName()))
+                .singleElement().extracting(Supplement::getStockQuantity).isEqualTo(5);
+
+        orderService.release(order.getId(), OrderStatus.EXPIRED);
+        assertThat(supplementRepository.findById(id).orElseThrow().getStockQuantity()).isEqualTo(20);
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
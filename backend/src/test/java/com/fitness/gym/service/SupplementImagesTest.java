@@ -0,0 +1,59 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.SupplementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SupplementImagesTest {
+
+    @Autowired
+    private SupplementService supplementService;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    private Long id;
+
+    @BeforeEach
+    void seed() {
+        Supplement supplement = new Supplement();
+        supplement.setName("Whey");
+        supplement.setCategory("protein");
+        supplement.setPrice(new BigDecimal("39.99"));
+        supplement.setPriceId("price_images");
+        supplement.setImageUrl("https://cdn.test/first.jpg");
+        id = supplementRepository.save(supplement).getId();
+    }
+
+    @Test
+    void variantsOfAReplacedImageAreDropped() {
+        assertThat(supplementService.updateImages(id, null, "https://cdn.test/second.jpg", null, null)).isTrue();
+
+        assertThat(supplementService.updateImages(id, "https://cdn.test/first.jpg",
+                "https://cdn.test/first-full.jpg", "https://cdn.test/first-card.jpg", "https://cdn.test/first-thumb.jpg"))
+                .isFalse();
+        assertThat(supplementService.updateImages(id, "https://cdn.test/second.jpg",
+                "https://cdn.test/second-full.jpg", "https://cdn.test/second-card.jpg", "https://cdn.test/second-thumb.jpg"))
+                .isTrue();
+
+        Supplement stored = supplementRepository.findById(id).orElseThrow();
+        assertThat(stored.getImageUrl()).isEqualTo("https://cdn.test/second-full.jpg");
+        assertThat(stored.getImageCardUrl()).isEqualTo("https://cdn.test/second-card.jpg");
+        assertThat(stored.getImageThumbUrl()).isEqualTo("https://cdn.test/second-thumb.jpg");
+    }
+
+    @Test
+    void unknownSupplementIsNotFound() {
+        assertThatThrownBy(() -> supplementService.updateImages(-1L, null, "https://cdn.test/x.jpg", null, null))
+                .isInstanceOf(SupplementNotFoundException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.fitness.gym.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.gym.dto.SupplementSearchResult;
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.SupplementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SupplementSearchTest {
+
+    @Autowired
+    private SupplementService supplementService;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void resultsAreSummaryCards() throws Exception {
+        Supplement supplement = new Supplement();
+        supplement.setName("Electrolyte Tabs");
+        supplement.setCategory("hydration");
+        supplement.setBrand("Saltline");
+        supplement.setDescription("Sodium, potassium and magnesium for long sessions");
+        supplement.setUsageInstructions("One tab per 500ml");
+        supplement.setPrice(new BigDecimal("9.99"));
+        supplement.setPriceId("price_search");
+        supplement.setIsAvailable(true);
+        Long id = supplementService.createSupplement(supplement).getId();
+
+        SupplementSearchResult result = supplementService.search("electrolyte magnes", null, null, 10);
+        JsonNode json = objectMapper.valueToTree(result);
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        JsonNode item = json.path("items").path(0);
+        assertThat(item.path("id").asLong()).isEqualTo(id);
+        assertThat(item.path("name").asText()).isEqualTo("Electrolyte Tabs");
+        assertThat(item.path("price_id").asText()).isEqualTo("price_search");
+        assertThat(item.has("description")).isFalse();
+        assertThat(item.has("usageInstructions")).isFalse();
+        assertThat(item.has("target")).isFalse();
+        assertThat(json.path("brandFacets").path("Saltline").asLong()).isEqualTo(1);
+    }
+}
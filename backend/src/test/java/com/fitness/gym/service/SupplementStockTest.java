@@ -0,0 +1,66 @@
+package com.fitness.gym.service;
+
+import com.fitness.gym.model.Supplement;
+import com.fitness.gym.repository.SupplementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SupplementStockTest {
+
+    @Autowired
+    private SupplementService supplementService;
+
+    @Autowired
+    private SupplementRepository supplementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long id;
+
+    @BeforeEach
+    void seed() {
+        Supplement supplement = new Supplement();
+        supplement.setName("Creatine");
+        supplement.setCategory("performance");
+        supplement.setPrice(new BigDecimal("24.99"));
+        supplement.setPriceId("price_stock");
+        supplement.setStockQuantity(10);
+        id = supplementRepository.save(supplement).getId();
+    }
+
+    @Test
+    void editingDetailsKeepsReservationsMadeSinceTheRead() {
+        // One persistence context for the whole edit, as with open-in-view, so the update sees the stock it read
+        transactionTemplate.executeWithoutResult(status -> {
+            Supplement edited = supplementService.getSupplementById(id);
+            supplementRepository.reserveStock(id, 3);
+
+            edited.setName("Creatine Monohydrate");
+            supplementService.updateSupplement(id, edited);
+        });
+
+        Supplement stored = supplementRepository.findById(id).orElseThrow();
+        assertThat(stored.getName()).isEqualTo("Creatine Monohydrate");
+        assertThat(stored.getStockQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void adjustmentsAreRelativeAndNeverGoNegative() {
+        transactionTemplate.executeWithoutResult(status -> supplementRepository.reserveStock(id, 3));
+
+        assertThat(supplementService.adjustStock(id, 5).getStockQuantity()).isEqualTo(12);
+        assertThatThrownBy(() -> supplementService.adjustStock(id, -13))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only 12 units are in stock");
+    }
+}
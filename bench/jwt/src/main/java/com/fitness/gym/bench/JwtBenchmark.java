@@ -0,0 +1,114 @@
+package com.fitness.gym.bench;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JwtTokenProvider hot path before and after the key and parser were built once.
+ * The "perCall" benchmarks mirror the old code, which derived the HMAC key and a new parser on every
+ * call and parsed each request's token twice (validateToken, then getEmailFromJWT). The "cached"
+ * benchmarks mirror the current code: one key, one immutable parser with a kid resolver, one parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final String KEY_ID = "primary";
+    private static final String EMAIL = "bench@example.com";
+    private static final long EXPIRATION_MS = 900_000;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private String legacyToken;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Map<String, Key> keys = Map.of(KEY_ID, signingKey);
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keys.get(header.getKeyId() != null ? header.getKeyId() : KEY_ID);
+                    }
+                })
+                .build();
+        legacyToken = generatePerCall();
+        token = generateCached();
+    }
+
+    private static Key perCallKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String generatePerCall() {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject(EMAIL)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + EXPIRATION_MS))
+                .signWith(perCallKey(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    @Benchmark
+    public String generateCached() {
+        Date now = new Date();
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, KEY_ID)
+                .setSubject(EMAIL)
+                .claim("roles", List.of("ROLE_USER"))
+                .claim("ver", 0)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + EXPIRATION_MS))
+                .signWith(signingKey, SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    @Benchmark
+    public String verifyPerCall() {
+        Jwts.parserBuilder().setSigningKey(perCallKey()).build().parseClaimsJws(legacyToken);
+        return Jwts.parserBuilder()
+                .setSigningKey(perCallKey())
+                .build()
+                .parseClaimsJws(legacyToken)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+}
@@ -19,6 +19,7 @@ const Login = () => {
         password
       });
       localStorage.setItem('token', response.data.token);
+      localStorage.setItem('refreshToken', response.data.refreshToken);
       localStorage.setItem('user', JSON.stringify(response.data));
       setIsAuthenticated(true);
       navigate('/');
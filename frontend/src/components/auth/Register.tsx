@@ -33,6 +33,7 @@ const Register = () => {
         height: parseFloat(formData.height)
       });
       localStorage.setItem('token', response.data.token);
+      localStorage.setItem('refreshToken', response.data.refreshToken);
       localStorage.setItem('user', JSON.stringify(response.data));
       navigate('/');
     } catch (error) {
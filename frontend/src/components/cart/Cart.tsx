@@ -1,4 +1,4 @@
-import React from "react";
+import React, { useMemo } from "react";
 import {
   Container,
   Typography,
@@ -37,6 +37,8 @@ const fallbackImages = {
 
 const Cart = () => {
   const { items, removeFromCart, updateQuantity, totalPrice } = useCart();
+  // One key per cart contents, so double-clicks and retries reuse the same Stripe session
+  const idempotencyKey = useMemo(() => crypto.randomUUID(), [items]);
 
   const handleCheckout = async () => {
     console.log("🛒 Cart items (raw):", items);
@@ -46,19 +48,26 @@ const Cart = () => {
       return;
     }
 
-    const products = items
-      .filter((i) => !!i.price_id)
-      .map((i) => ({ price_id: i.price_id, quantity: i.quantity }));
+    // The server prices the cart; sending the displayed price lets it reject a stale cart
+    const products = items.map((i) => ({
+      supplement_id: i.id,
+      quantity: i.quantity,
+      price: i.price,
+    }));
 
     console.log("📦 Payload products (to backend):", products);
 
     if (!products.length) {
-      alert("No valid items to checkout (missing priceId).");
+      alert("No valid items to checkout.");
       return;
     }
 
     try {
-      const { data } = await api.post("/product/v1/checkoutCart", { products });
+      const { data } = await api.post(
+        "/product/v1/checkoutCart",
+        { products },
+        { headers: { "Idempotency-Key": idempotencyKey } }
+      );
       console.log("StripeResponse from backend:", data);
 
       if (data?.status?.toLowerCase() === "failed") {
@@ -11,57 +11,29 @@ import {
   CardActions,
   Grid
 } from '@mui/material';
+import { getRecommendations } from '../../services/supplementService';
+import type { SupplementRecommendation } from '../../services/supplementService';
 
 type FitnessGoal = 'weight loss' | 'muscle gain' | 'maintenance' | '';
 
-interface Product {
-  name: string;
-  link: string;
-}
-
 const SupplementRecommender: React.FC = () => {
   const [height, setHeight] = useState<number | ''>('');
   const [weight, setWeight] = useState<number | ''>('');
   const [goal, setGoal] = useState<FitnessGoal>('');
-  const [suggestions, setSuggestions] = useState<Product[]>([]);
-
-  const supplementAI = (height: number, weight: number, goal: FitnessGoal): Product[] => {
-    const bmi = weight / ((height / 100) ** 2);
-    let recommendations: Product[] = [];
-
-    if (goal === 'weight loss') {
-      recommendations = [
-        { name: 'Green Tea Extract', link: '/supplements/green-tea' },
-        { name: 'CLA', link: '/supplements/cla' },
-        { name: 'L-Carnitine', link: '/supplements/carnitine' }
-      ];
-      if (bmi > 30) recommendations.push({ name: 'Apple Cider Vinegar Capsules', link: '/supplements/acv' });
-    } else if (goal === 'muscle gain') {
-      recommendations = [
-        { name: 'Whey Protein', link: '/supplements/whey' },
-        { name: 'Creatine', link: '/supplements/creatine' },
-        { name: 'BCAA', link: '/supplements/bcaa' }
-      ];
-      if (weight < 60) recommendations.push({ name: 'Mass Gainer', link: '/supplements/gainer' });
-    } else if (goal === 'maintenance') {
-      recommendations = [
-        { name: 'Multivitamin', link: '/supplements/vitamins' },
-        { name: 'Fish Oil', link: '/supplements/fishoil' },
-        { name: 'Probiotics', link: '/supplements/probiotics' }
-      ];
-    }
+  const [suggestions, setSuggestions] = useState<SupplementRecommendation[]>([]);
 
-    return recommendations;
-  };
-
-  const handleSubmit = (e: React.FormEvent) => {
+  const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault();
     if (!height || !weight || !goal) {
       alert('Please fill out all fields correctly.');
       return;
     }
-    const results = supplementAI(height, weight, goal);
-    setSuggestions(results);
+    try {
+      setSuggestions(await getRecommendations({ goal, weight, height, limit: 6 }));
+    } catch (error) {
+      console.error('Error fetching recommendations:', error);
+      alert('Could not load recommendations. Please try again.');
+    }
   };
 
   return (
@@ -110,16 +82,19 @@ const SupplementRecommender: React.FC = () => {
             Your Personalized Recommendations:
           </Typography>
           <Grid container spacing={2}>
-            {suggestions.map((product, index) => (
-              <Grid item xs={12} sm={6} key={index}>
+            {suggestions.map(({ supplement, reason }) => (
+              <Grid item xs={12} sm={6} key={supplement.id}>
                 <Card>
                   <CardContent>
-                    <Typography variant="h6">{product.name}</Typography>
+                    <Typography variant="h6">{supplement.name}</Typography>
+                    <Typography variant="body2" color="text.secondary">
+                      {reason === 'bought-together' ? 'Often bought with your past purchases' : `Popular ${supplement.category.toLowerCase()} pick for your goal`}
+                    </Typography>
                   </CardContent>
                   <CardActions>
                     <Button
                       size="small"
-                      href={product.link}
+                      href={`/supplements/${supplement.id}`}
                       variant="outlined"
                     >
                       View Product
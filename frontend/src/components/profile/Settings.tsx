@@ -206,6 +206,11 @@ const Settings = () => {
         }
       }
 
+      // Tokens issued before the change are revoked; keep the fresh one the backend returned
+      const authData = await response.json();
+      localStorage.setItem('token', authData.token);
+      localStorage.setItem('refreshToken', authData.refreshToken);
+
       // Success! Clear form and show success message
       console.log('✅ Password changed successfully!');
       setMessage({ type: 'success', text: 'Password changed successfully! You can now use your new password to log in.' });
@@ -24,13 +24,12 @@ import api from "../../utils/api";
 interface Supplement {
   id: number;
   name: string;
-  description: string;
   price: number;
   imageUrl: string;
+  imageThumbUrl?: string;
+  imageCardUrl?: string;
   category: string;
   brand: string;
-  usage: string;
-  benefits: string;
   price_id: string;
   fallbackImage?: string;
 }
@@ -133,7 +132,7 @@ const SupplementList = () => {
       price: s.price,
       price_id,
       quantity: qty,
-      imageUrl: s.imageUrl,
+      imageUrl: s.imageThumbUrl || s.imageUrl,
       category: s.category,
     });
   };
@@ -162,7 +161,7 @@ const SupplementList = () => {
                 <CardMedia
                   component="img"
                   height="200"
-                  image={supplement.imageUrl || supplement.fallbackImage}
+                  image={supplement.imageCardUrl || supplement.imageUrl || supplement.fallbackImage}
                   alt={supplement.name}
                   onError={(e) => {
                     const img = e.target as HTMLImageElement;
@@ -178,9 +177,6 @@ const SupplementList = () => {
                   <Typography gutterBottom variant="h5" component="h2">
                     {supplement.name}
                   </Typography>
-                  <Typography variant="body2" color="text.secondary" paragraph>
-                    {supplement.description}
-                  </Typography>
                   <Box sx={{ display: "flex", alignItems: "center", mb: 2 }}>
                     <Typography variant="h6" color="primary">
                       ${supplement.price.toFixed(2)}
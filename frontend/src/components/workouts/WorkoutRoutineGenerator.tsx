@@ -1,6 +1,6 @@
 import React, { useState } from 'react';
 import { Box, Container, Typography, Grid, TextField, Button, FormControl, InputLabel, Select, MenuItem, Checkbox, FormControlLabel, Paper, CircularProgress } from '@mui/material';
-import { generateWorkoutRoutine } from '../../services/deepseekService';
+import { generateWorkoutRoutine } from '../../services/workoutService';
 
 // Export types
 export interface WorkoutExercise {
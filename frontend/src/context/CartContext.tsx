@@ -1,4 +1,5 @@
 import React, { createContext, useContext, useState, useEffect } from 'react';
+import { getSupplementsByIds } from '../services/supplementService';
 
 interface CartItem {
   id: number;
@@ -32,6 +33,26 @@ export const CartProvider: React.FC<{ children: React.ReactNode }> = ({ children
     localStorage.setItem('cart', JSON.stringify(items));
   }, [items]);
 
+  // The saved cart may be days old: refresh names and prices in one batched request and drop deleted items
+  useEffect(() => {
+    if (!items.length) return;
+    getSupplementsByIds(items.map(item => item.id))
+      .then(({ supplements, notFound }) => {
+        const byId = new Map(supplements.map(s => [s.id, s]));
+        setItems(currentItems =>
+          currentItems
+            .filter(item => !notFound.includes(item.id))
+            .map(item => {
+              const s = byId.get(item.id);
+              return s
+                ? { ...item, name: s.name, price: Number(s.price), price_id: s.price_id ?? item.price_id, imageUrl: s.imageUrl ?? item.imageUrl, category: s.category }
+                : item;
+            })
+        );
+      })
+      .catch(error => console.error('Error refreshing cart:', error));
+  }, []);
+
   const addToCart = (newItem: CartItem) => {
     setItems(currentItems => {
       const existingItem = currentItems.find(item => item.id === newItem.id);
@@ -0,0 +1,55 @@
+import api from '../utils/api';
+
+export interface SupplementRecommendation {
+  supplement: {
+    id: number;
+    name: string;
+    price: number;
+    imageThumbUrl?: string;
+    category: string;
+  };
+  reason: 'bought-together' | 'profile';
+  relatedSupplementId?: number;
+}
+
+interface RecommendationQuery {
+  goal?: string;
+  weight?: number;
+  height?: number;
+  age?: number;
+  limit?: number;
+}
+
+// Ranked by the backend from the member's profile and purchase history; the fields given override the profile
+export const getRecommendations = async (query: RecommendationQuery): Promise<SupplementRecommendation[]> => {
+  const { data } = await api.get<SupplementRecommendation[]>('/supplements/recommendations', { params: query });
+  return data;
+};
+
+export interface SupplementDetail {
+  id: number;
+  name: string;
+  description?: string;
+  price: number;
+  imageUrl?: string;
+  imageThumbUrl?: string;
+  imageCardUrl?: string;
+  category: string;
+  brand?: string;
+  stockQuantity?: number;
+  usageInstructions?: string;
+  benefits?: string;
+  price_id?: string;
+  isAvailable: boolean;
+}
+
+export interface SupplementBatch {
+  supplements: SupplementDetail[];
+  notFound: number[];
+}
+
+// One request and one query for a whole cart; ids that no longer exist or were deleted come back in notFound
+export const getSupplementsByIds = async (ids: number[]): Promise<SupplementBatch> => {
+  const { data } = await api.get<SupplementBatch>('/supplements', { params: { ids: ids.join(',') } });
+  return data;
+};
@@ -0,0 +1,57 @@
+import api from '../utils/api';
+import type { WorkoutRoutine } from '../components/workouts/WorkoutRoutineGenerator';
+
+interface WorkoutPreferences {
+  goal: string;
+  experienceLevel: string;
+  duration: string;
+  equipment: string[];
+  focusAreas: string[];
+  frequency: number | string;
+}
+
+// Plans are generated (and cached per preference set) by the backend, which holds the provider key
+export const generateWorkoutRoutine = async (preferences: WorkoutPreferences): Promise<WorkoutRoutine> => {
+  const { data } = await api.post<WorkoutRoutine>('/workouts/generate', preferences);
+  return data;
+};
+
+export interface LoggedSession {
+  id: string; // crypto.randomUUID(), kept across retries so a session is never counted twice
+  name?: string;
+  startedAt: string;
+  endedAt?: string;
+  notes?: string;
+  exercises: { name: string; sets: { reps: number; loadKg: number }[] }[];
+}
+
+export interface WorkoutLogResult {
+  accepted: number;
+  duplicates: number;
+  personalRecords: string[];
+}
+
+export interface WorkoutProgressPoint {
+  periodStart: string;
+  sessions: number;
+  sets: number;
+  reps: number;
+  volume: number;
+  maxLoad: number;
+  bestE1rm: number;
+  prs: number;
+}
+
+export const logWorkouts = async (sessions: LoggedSession[]): Promise<WorkoutLogResult> => {
+  const timeZone = Intl.DateTimeFormat().resolvedOptions().timeZone;
+  const { data } = await api.post<WorkoutLogResult>('/workouts/log', { timeZone, sessions });
+  return data;
+};
+
+// One pre-aggregated row per day or week; exercise '*' gives the totals across all exercises
+export const getWorkoutProgress = async (
+  params: { exercise?: string; period?: 'day' | 'week'; from?: string; to?: string } = {}
+): Promise<WorkoutProgressPoint[]> => {
+  const { data } = await api.get<WorkoutProgressPoint[]>('/workouts/progress', { params });
+  return data;
+};
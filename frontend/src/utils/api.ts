@@ -17,11 +17,48 @@ api.interceptors.request.use(
   }
 );
 
+// Refresh tokens are single-use, so concurrent 401s share one exchange instead of each spending the token
+let refreshing: Promise<string> | null = null;
+
+const refreshAccessToken = (refreshToken: string): Promise<string> => {
+  if (!refreshing) {
+    refreshing = axios
+      .post('http://localhost:8080/api/auth/refresh', { refreshToken })
+      .then(({ data }) => {
+        localStorage.setItem('token', data.token);
+        localStorage.setItem('refreshToken', data.refreshToken);
+        return data.token as string;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+// Access tokens are short-lived; trade the refresh token for a new pair once before giving up
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    const original = error.config;
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (error.response?.status === 401 && refreshToken && !original._retry) {
+      original._retry = true;
+      try {
+        // A request sent before an exchange that has since finished only needs the new access token
+        const current = localStorage.getItem('token');
+        const token = current && original.headers.Authorization !== `Bearer ${current}`
+          ? current
+          : await refreshAccessToken(refreshToken);
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch {
+        // Fall through to the logout below
+      }
+    }
     if (error.response?.status === 401) {
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       window.location.href = '/login';
     }